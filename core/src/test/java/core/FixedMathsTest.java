@@ -0,0 +1,144 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that every operation of <code>FixedMaths</code> gives exactly the same result as
+ * <code>Maths</code>, or throws the same exception, over edge cases and a large corpus of random
+ * values.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class FixedMathsTest
+{
+    private static final int CORPUS_SIZE = 1000000;
+
+    private static final double[] EDGES = {0.0, -0.0, 0.5, 1.5, 2.5, -2.5, 0.125, 0.0625, 1e-3, 9999999.5, 9999998.5,
+        0.99999995, 999999.95, 1e6, 1e7, 1e-11, 1e-10, 4.6e18, 0x1p62, 1e19, 1e-12, 3.0, 7.0,
+        Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN, Double.POSITIVE_INFINITY};
+
+    /**
+     * The differences found, of which only the first few are reported.
+     */
+    private final List<String> failures = new ArrayList<>();
+
+    private int failureCount = 0;
+
+    private interface Operation
+    {
+        double apply(double value1, double value2);
+    }
+
+    @Test
+    public void matchesMathsOnEdgeCases()
+    {
+        for(double edge : EDGES)
+        {
+            for(double other : EDGES)
+            {
+                for(int scale = -2; scale <= 8; scale++)
+                {
+                    check(edge, other, scale);
+                    check(Math.nextUp(edge), Math.nextDown(other), scale);
+                }
+            }
+        }
+        assertNoFailures();
+    }
+
+    @Test
+    public void matchesMathsOnRandomValues()
+    {
+        Random random = new Random(2016);
+        double[] values = corpus(random, CORPUS_SIZE + 1);
+        for(int i = 0; i < CORPUS_SIZE; i++)
+        {
+            check(values[i], values[i + 1], random.nextInt(14) - 3);
+        }
+        assertNoFailures();
+    }
+
+    private void assertNoFailures()
+    {
+        assertTrue(failureCount + " differences, including " + failures, failureCount == 0);
+    }
+
+    private void check(double value1, double value2, int scale)
+    {
+        same("add", value1, value2, scale, Maths::add, FixedMaths::add);
+        same("subtract", value1, value2, scale, Maths::subtract, FixedMaths::subtract);
+        same("multiply", value1, value2, scale, Maths::multiply, FixedMaths::multiply);
+        same("divide", value1, value2, scale, (a, b) -> Maths.divide(a, b, scale), (a, b) -> FixedMaths.divide(a, b, scale));
+        same("round", value1, value2, scale, (a, b) -> Maths.round(a, scale), (a, b) -> FixedMaths.round(a, scale));
+    }
+
+    private void same(String name, double value1, double value2, int scale, Operation expected, Operation actual)
+    {
+        String expectedResult = result(expected, value1, value2);
+        String actualResult = result(actual, value1, value2);
+        if(!expectedResult.equals(actualResult))
+        {
+            if(failureCount++ < 10)
+            {
+                failures.add(name + "(" + value1 + ", " + value2 + ", " + scale + "): expected " + expectedResult
+                    + " but was " + actualResult);
+            }
+        }
+    }
+
+    /**
+     * Returns the bits of the result of the operation, or the name of the exception it throws.
+     */
+    private static String result(Operation operation, double value1, double value2)
+    {
+        try
+        {
+            return Long.toHexString(Double.doubleToRawLongBits(operation.apply(value1, value2)));
+        }
+        catch(RuntimeException e)
+        {
+            return e.getClass().getName();
+        }
+    }
+
+    /**
+     * Creates random values spread over a wide range of magnitudes, with some of them rounded to a
+     * few decimal places so that ties are common.
+     */
+    private static double[] corpus(Random random, int size)
+    {
+        double[] values = new double[size];
+        for(int i = 0; i < size; i++)
+        {
+            double value = Math.pow(10, random.nextDouble() * 24 - 13) * (random.nextBoolean() ? 1 : -1);
+            switch(random.nextInt(4))
+            {
+                case 0:
+                    value = Math.rint(value * 1000) / 1000;
+                    break;
+                case 1:
+                    value = Math.rint(value * 8) / 8;
+                    break;
+                default:
+                    break;
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+}
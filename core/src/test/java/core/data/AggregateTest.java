@@ -0,0 +1,156 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.Updater;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that aggregates follow every change to their group, including several changes propagated
+ * in the same epoch, that compensated sums do not drift over long runs of changes, and that
+ * minimums and maximums stay right in segment trees of many levels.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class AggregateTest
+{
+    @Test
+    public void followsSingleChanges()
+    {
+        DoubleVariable x = new DoubleVariable(2);
+        DoubleVariable y = new DoubleVariable(10);
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, x, y);
+        Aggregate max = new Aggregate(Aggregate.Function.MAXIMUM, x, y);
+        x.setDouble(30);
+        assertEquals(40, sum.getDouble(), 0);
+        assertEquals(30, max.getDouble(), 0);
+    }
+
+    @Test
+    public void followsTwoChangesInOneBatch()
+    {
+        DoubleVariable x = new DoubleVariable(2);
+        DoubleVariable y = new DoubleVariable(10);
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, x, y);
+        Aggregate mean = new Aggregate(Aggregate.Function.MEAN, x, y);
+        Aggregate min = new Aggregate(Aggregate.Function.MINIMUM, x, y);
+        Aggregate max = new Aggregate(Aggregate.Function.MAXIMUM, x, y);
+        Updater.get().runBatched(() ->
+        {
+            x.setDouble(10);
+            y.setDouble(20);
+        });
+        assertEquals(30, sum.getDouble(), 0);
+        assertEquals(15, mean.getDouble(), 0);
+        assertEquals(10, min.getDouble(), 0);
+        assertEquals(20, max.getDouble(), 0);
+    }
+
+    @Test
+    public void followsChangesToAggregatesInOneBatch()
+    {
+        DoubleVariable x = new DoubleVariable(1);
+        DoubleVariable y = new DoubleVariable(2);
+        DoubleVariable z = new DoubleVariable(3);
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, x, y);
+        Aggregate max = new Aggregate(Aggregate.Function.MAXIMUM, sum, z);
+        Updater.get().runBatched(() ->
+        {
+            z.setDouble(4);
+            x.setDouble(5);
+        });
+        assertEquals(7, sum.getDouble(), 0);
+        assertEquals(7, max.getDouble(), 0);
+    }
+
+    @Test
+    public void readsWholeGroupWhenParentIsUnknown()
+    {
+        DoubleVariable x = new DoubleVariable(2);
+        DoubleVariable y = new DoubleVariable(10);
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, x, y);
+        Aggregate min = new Aggregate(Aggregate.Function.MINIMUM, x, y);
+        Updater.get().removeChild(x, sum);
+        Updater.get().removeChild(x, min);
+        x.setDouble(1);
+        sum.update(null);
+        min.update(null);
+        assertEquals(11, sum.getDouble(), 0);
+        assertEquals(1, min.getDouble(), 0);
+    }
+
+    @Test
+    public void sumStaysWithinOneUlpOverLongRunOfChanges()
+    {
+        Random random = new Random(2016);
+        DoubleVariable[] inputs = new DoubleVariable[64];
+        for(int i = 0; i < inputs.length; i++)
+        {
+            inputs[i] = new DoubleVariable(random.nextDouble());
+        }
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, inputs);
+        for(int change = 0; change < 100000; change++)
+        {
+            DoubleVariable input = inputs[random.nextInt(inputs.length)];
+            double large = (random.nextDouble() + 0.5) * 1e12 * (random.nextBoolean() ? 1 : -1);
+            input.setDouble(large);
+            input.setDouble(random.nextDouble() * 1e-3);
+            double exact = exactSum(inputs);
+            assertTrue("Sum " + sum.getDouble() + " drifted from " + exact + " after " + change + " changes",
+                Math.abs(sum.getDouble() - exact) <= Math.ulp(exact));
+        }
+        assertEquals(new Aggregate(Aggregate.Function.SUM, inputs).getDouble(), sum.getDouble(), Math.ulp(sum.getDouble()));
+    }
+
+    @Test
+    public void followsChangesInTreeOfManyLevels()
+    {
+        Random random = new Random(2016);
+        DoubleVariable[] inputs = new DoubleVariable[37];
+        for(int i = 0; i < inputs.length; i++)
+        {
+            inputs[i] = new DoubleVariable(random.nextGaussian());
+        }
+        Aggregate min = new Aggregate(Aggregate.Function.MINIMUM, inputs);
+        Aggregate max = new Aggregate(Aggregate.Function.MAXIMUM, inputs);
+        for(int change = 0; change < 10000; change++)
+        {
+            inputs[random.nextInt(inputs.length)].setDouble(random.nextGaussian());
+            double expectedMin = Double.POSITIVE_INFINITY;
+            double expectedMax = Double.NEGATIVE_INFINITY;
+            for(DoubleVariable input : inputs)
+            {
+                expectedMin = Math.min(expectedMin, input.getDouble());
+                expectedMax = Math.max(expectedMax, input.getDouble());
+            }
+            assertEquals(expectedMin, min.getDouble(), 0);
+            assertEquals(expectedMax, max.getDouble(), 0);
+        }
+    }
+
+    /**
+     * Returns the exact sum of the values of the given variables, rounded to a <code>double</code>.
+     */
+    private static double exactSum(DoubleVariable[] inputs)
+    {
+        BigDecimal sum = BigDecimal.ZERO;
+        for(DoubleVariable input : inputs)
+        {
+            sum = sum.add(new BigDecimal(input.getDouble()));
+        }
+        return sum.doubleValue();
+    }
+}
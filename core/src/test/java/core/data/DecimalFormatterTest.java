@@ -0,0 +1,136 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that values are formatted at the scale of their variable or column only when it has been
+ * set, and that unscaled floating point numbers are written as the shortest decimal that reads back
+ * as the same number, without creating any objects.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class DecimalFormatterTest
+{
+    private static String format(DecimalFormatter formatter, double value)
+    {
+        formatter.format(value);
+        return formatter.toString();
+    }
+
+    @Test
+    public void writesUnscaledDoublesLikeStringValueOf()
+    {
+        DecimalFormatter formatter = new DecimalFormatter(DecimalFormatter.UNSCALED);
+        double[] values = {0.0, -0.0, 1.0, 3.0, -3.25, 0.1, 0.001, 0.0012345, 123.456, 9999999.0, 1234567.125,
+            0.30000000000000004, 1e7, 1.5e-4, 1e300, Double.NaN, Double.POSITIVE_INFINITY};
+        for(double value : values)
+        {
+            assertEquals(String.valueOf(value), format(formatter, value));
+        }
+    }
+
+    @Test
+    public void writesUnscaledDoublesThatReadBack()
+    {
+        DecimalFormatter formatter = new DecimalFormatter(DecimalFormatter.UNSCALED);
+        Random random = new Random(2016);
+        for(int i = 0; i < 100000; i++)
+        {
+            double value = Math.pow(10, random.nextDouble() * 12 - 4) * (random.nextBoolean() ? 1 : -1);
+            if(i % 2 == 0)
+            {
+                value = Math.rint(value * 1000) / 1000;
+            }
+            String text = format(formatter, value);
+            assertEquals(value, Double.parseDouble(text), 0);
+            assertTrue(text, text.length() <= String.valueOf(value).length());
+        }
+    }
+
+    @Test
+    public void writesUnscaledDoublesWithoutCreatingObjects()
+    {
+        DecimalFormatter formatter = new DecimalFormatter(DecimalFormatter.UNSCALED);
+        double[] values = new double[1024];
+        Random random = new Random(2016);
+        for(int i = 0; i < values.length; i++)
+        {
+            values[i] = Math.rint(random.nextDouble() * 1e9) / 1000;
+        }
+        for(int i = 0; i < 100000; i++)
+        {
+            formatter.format(values[i & 1023]);
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long allocated = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for(int i = 0; i < 100000; i++)
+        {
+            formatter.format(values[i & 1023]);
+        }
+        allocated = bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+        assertTrue(allocated + " bytes allocated", allocated < 10000);
+    }
+
+    @Test
+    public void showsDoublesInFullUntilScaleIsSet()
+    {
+        DecimalFormatter formatter = new DecimalFormatter(DecimalFormatter.UNSCALED);
+        Range<Double> range = new Range<>(0.0, 10.0, 2.75);
+        Numeric<Double> numeric = new Numeric<>(2.75);
+        DoubleVariable variable = new DoubleVariable(2.75);
+        for(Variables<?> shown : new Variables<?>[]{range, numeric, variable})
+        {
+            formatter.format(shown);
+            assertEquals("2.75", formatter.toString());
+        }
+        range.setScale(0);
+        numeric.setScale(1);
+        variable.setScale(0);
+        formatter.format(range);
+        assertEquals("3", formatter.toString());
+        formatter.format(numeric);
+        assertEquals("2.8", formatter.toString());
+        formatter.format(variable);
+        assertEquals("3", formatter.toString());
+    }
+
+    @Test
+    public void showsColumnValuesInFullUntilScaleIsSet()
+    {
+        DecimalFormatter formatter = new DecimalFormatter(DecimalFormatter.UNSCALED);
+        DoubleColumn column = new DoubleColumn("Ratio", 1);
+        column.setDouble(0, 0.37);
+        column.format(0, formatter);
+        assertEquals("0.37", formatter.toString());
+        column.setScale(1);
+        column.format(0, formatter);
+        assertEquals("0.4", formatter.toString());
+    }
+
+    @Test
+    public void reportsWhetherCharactersChanged()
+    {
+        DecimalFormatter formatter = new DecimalFormatter(2);
+        assertTrue(formatter.format(1.234));
+        assertEquals("1.23", formatter.toString());
+        assertFalse(formatter.format(1.2345));
+        assertTrue(formatter.format(1.236));
+        assertEquals("1.24", formatter.toString());
+    }
+}
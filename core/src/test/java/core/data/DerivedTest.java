@@ -0,0 +1,162 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.UpdateSink;
+import core.Updater;
+import core.Updating;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that derived variables are computed lazily, are current on the thread that changed an input
+ * even when the change is propagated later by a sink, and only pass changes on when their value
+ * changes.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class DerivedTest
+{
+    /**
+     * A sink that holds every change until it is drained, as a user interface that propagates
+     * changes on a thread of its own would.
+     */
+    private static class HoldingSink implements UpdateSink
+    {
+        private final List<Updating> held = new ArrayList<>();
+
+        private boolean isDraining = false;
+
+        @Override
+        public boolean offer(Updating parent)
+        {
+            if(isDraining)
+            {
+                return false;
+            }
+            held.add(parent);
+            return true;
+        }
+
+        @Override
+        public void updateChild(Updating parent, Updating child)
+        {
+            child.update(parent);
+        }
+
+        @Override
+        public void refresh()
+        {
+
+        }
+
+        private void drain()
+        {
+            isDraining = true;
+            Updater.get().runBatched(() ->
+            {
+                for(Updating parent : held)
+                {
+                    Updater.get().update(parent);
+                }
+            });
+            held.clear();
+            isDraining = false;
+        }
+    }
+
+    private int updates = 0;
+
+    @After
+    public void tearDown()
+    {
+        Updater.get().setSink(null);
+    }
+
+    @Test
+    public void computesOnlyWhenRead()
+    {
+        IntVariable x = new IntVariable(1);
+        Derived<Integer> doubled = new Derived<>(() -> x.getInt() * 2, x);
+        for(int i = 0; i < 100; i++)
+        {
+            x.setInt(i);
+        }
+        assertEquals(0, doubled.getComputeCount());
+        assertEquals(198, (int)doubled.getValue());
+        assertEquals(198, (int)doubled.getValue());
+        assertEquals(1, doubled.getComputeCount());
+    }
+
+    @Test
+    public void isCurrentStraightAfterAnInputIsChangedWhilePropagationIsHeld()
+    {
+        HoldingSink sink = new HoldingSink();
+        Updater.get().setSink(sink);
+        IntVariable x = new IntVariable(5);
+        Derived<Integer> doubled = new Derived<>(() -> x.getInt() * 2, x);
+        Derived<Integer> plusOne = new Derived<>(() -> doubled.getValue() + 1, doubled);
+        assertEquals(11, (int)plusOne.getValue());
+        x.setInt(2);
+        assertTrue(doubled.isStale());
+        assertTrue(plusOne.isStale());
+        assertEquals(4, (int)doubled.getValue());
+        assertEquals(5, (int)plusOne.getValue());
+        assertFalse(plusOne.isStale());
+        sink.drain();
+        assertEquals(5, (int)plusOne.getValue());
+    }
+
+    @Test
+    public void passesOnChangeReadBeforeItWasPropagated()
+    {
+        HoldingSink sink = new HoldingSink();
+        Updater.get().setSink(sink);
+        IntVariable x = new IntVariable(5);
+        Derived<Integer> doubled = new Derived<>(() -> x.getInt() * 2, x);
+        Updating meter = (parent) -> updates++;
+        Updater.get().addChild(doubled, meter);
+        x.setInt(2);
+        assertEquals(4, (int)doubled.getValue());
+        sink.drain();
+        assertEquals(1, updates);
+        Updater.get().removeChild(doubled, meter);
+    }
+
+    @Test
+    public void passesOnOnlyChangedValues()
+    {
+        IntVariable x = new IntVariable(10);
+        IntVariable y = new IntVariable(20);
+        Derived<Boolean> isLess = new Derived<>(() -> x.getInt() < y.getInt(), x, y);
+        Updating meter = (parent) -> updates++;
+        Updater.get().addChild(isLess, meter);
+        x.setInt(11);
+        x.setInt(12);
+        assertEquals(1, updates);
+        Updater.get().runBatched(() ->
+        {
+            x.setInt(30);
+            y.setInt(40);
+        });
+        assertEquals(1, updates);
+        x.setInt(50);
+        assertEquals(2, updates);
+        assertFalse(isLess.getValue());
+        Updater.get().removeChild(isLess, meter);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that every bucket of a histogram counts the values around its middle, that quantiles are
+ * read to the given number of significant digits, and that the mean does not overflow.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class HistogramTest
+{
+    @Test
+    public void bucketValuesMapBackToTheirBuckets()
+    {
+        for(int digits = 1; digits <= 5; digits++)
+        {
+            Histogram histogram = new Histogram("Latency", 1, 1e12, digits);
+            histogram.stop();
+            for(int i = 0; i < histogram.getBucketCount(); i++)
+            {
+                double value = histogram.getBucketValue(i);
+                assertEquals("Bucket " + i + " at " + digits + " digits", i, histogram.getIndex((long)value));
+                if(i > 0)
+                {
+                    assertTrue("Bucket " + i + " is below the one before", value > histogram.getBucketValue(i - 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void quantilesAreWithinSignificantDigits()
+    {
+        int samples = 1000000;
+        Random random = new Random(2016);
+        double[] values = new double[samples];
+        for(int digits = 2; digits <= 4; digits++)
+        {
+            Histogram histogram = new Histogram("Latency", 1, 1e9, digits);
+            histogram.stop();
+            for(int i = 0; i < samples; i++)
+            {
+                values[i] = Math.min(1e9, Math.exp(random.nextGaussian() * 1.2 + 11));
+                histogram.record(values[i]);
+            }
+            Arrays.sort(values);
+            for(double quantile : new double[]{0.5, 0.99, 0.999})
+            {
+                double exact = values[(int)Math.ceil(quantile * samples) - 1];
+                double value = histogram.getValueAtQuantile(quantile);
+                assertEquals("p" + quantile * 100 + " at " + digits + " digits", exact, value,
+                    exact * Math.pow(10, -digits) + histogram.getResolution());
+            }
+        }
+    }
+
+    @Test
+    public void countsValuesOutsideRangeAtItsEnds()
+    {
+        Histogram histogram = new Histogram("Latency", 1, 1000, 3);
+        histogram.stop();
+        histogram.record(-5.0);
+        histogram.record(1e6);
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtQuantile(0.5), 0);
+        assertEquals(1000, histogram.getValueAtQuantile(1), 1);
+    }
+
+    @Test
+    public void meanDoesNotOverflow()
+    {
+        Histogram histogram = new Histogram("Latency", 1, 1e12, 3);
+        histogram.stop();
+        int samples = 10000000;
+        for(int i = 0; i < samples; i++)
+        {
+            histogram.record(1e12);
+        }
+        assertEquals(1e12, histogram.getMeanValue(), 1);
+        histogram.reset();
+        histogram.record(3.0);
+        assertEquals(3, histogram.getMeanValue(), 0);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that a <code>RowOrder</code> sorts stably, filters rows spread over many chunks into a
+ * compact order, and cancels requests that are superseded or cancelled without publishing them.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class RowOrderTest
+{
+    private ForkJoinPool pool;
+
+    /**
+     * Holds the only thread of the pool until it is counted down, so that requests made before
+     * then wait in the pool's queue.
+     */
+    private CountDownLatch block;
+
+    @Before
+    public void setUp()
+    {
+        pool = new ForkJoinPool(1);
+        block = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown()
+    {
+        block.countDown();
+        pool.shutdownNow();
+    }
+
+    private static Table createTable(int rowCount)
+    {
+        Table table = new Table("Rows");
+        table.setRowCount(rowCount);
+        DoubleColumn values = table.addColumn(new DoubleColumn("Values"));
+        DoubleColumn groups = table.addColumn(new DoubleColumn("Groups"));
+        Random random = new Random(2016);
+        for(int row = 0; row < rowCount; row++)
+        {
+            values.setDouble(row, random.nextGaussian());
+            groups.setDouble(row, random.nextInt(10));
+        }
+        return table;
+    }
+
+    private void blockPool()
+    {
+        pool.execute(() ->
+        {
+            try
+            {
+                block.await();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static void assertCancelled(CompletableFuture<int[]> future)
+    {
+        assertTrue(future.isCancelled());
+        try
+        {
+            future.join();
+            fail("A cancelled request was published");
+        }
+        catch(CancellationException e)
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void sortsStablyInBothDirections()
+    {
+        Table table = createTable(100000);
+        RowOrder order = new RowOrder(table, pool);
+        Column groups = table.getColumn(1);
+        for(boolean isAscending : new boolean[]{true, false})
+        {
+            int[] rows = order.sort(1, isAscending).join();
+            assertEquals(table.getRowCount(), rows.length);
+            for(int i = 1; i < rows.length; i++)
+            {
+                double previous = groups.getDouble(rows[i - 1]);
+                double value = groups.getDouble(rows[i]);
+                int comparison = isAscending ? Double.compare(previous, value) : Double.compare(value, previous);
+                assertTrue("Rows out of order at " + i, comparison <= 0);
+                if(comparison == 0)
+                {
+                    assertTrue("Equal rows out of table order at " + i, rows[i - 1] < rows[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void compactsFilteredRowsAcrossChunks()
+    {
+        int rowCount = 200000;
+        RowOrder order = new RowOrder(createTable(rowCount), pool);
+        int[] rows = order.filter((row) -> row % 3 == 0).join();
+        int[] expected = new int[(rowCount + 2) / 3];
+        for(int i = 0; i < expected.length; i++)
+        {
+            expected[i] = i * 3;
+        }
+        assertArrayEquals(expected, rows);
+        assertEquals(expected.length, order.getRowCount());
+        assertNull(order.filter(null).join());
+        assertEquals(rowCount, order.getRowCount());
+    }
+
+    @Test
+    public void cancelsSupersededRequest()
+    {
+        RowOrder order = new RowOrder(createTable(1000), pool);
+        blockPool();
+        CompletableFuture<int[]> superseded = order.filter((row) -> row < 500);
+        CompletableFuture<int[]> latest = order.filter((row) -> row < 10);
+        assertCancelled(superseded);
+        block.countDown();
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, latest.join());
+        assertFalse(latest.isCancelled());
+    }
+
+    @Test
+    public void stopsCancelledRequestWithoutPublishing()
+    {
+        RowOrder order = new RowOrder(createTable(1000), pool);
+        blockPool();
+        CompletableFuture<int[]> future = order.sort(0, true);
+        future.cancel(true);
+        block.countDown();
+        assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+        assertCancelled(future);
+        assertNull(order.getRows());
+    }
+}
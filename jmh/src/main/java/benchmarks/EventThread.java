@@ -0,0 +1,70 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Runs benchmarked code on the event dispatch thread, where Swing components have to be used even
+ * when they are not shown, as their layout and repaint requests are handled there. Operations are
+ * run in batches of <code>BATCH</code> per <code>invokeAndWait</code> call, so benchmarks that use
+ * this declare <code>@OperationsPerInvocation(EventThread.BATCH)</code> and the cost of passing the
+ * batch to the event dispatch thread is shared between its operations.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+final class EventThread
+{
+    static final int BATCH = 100;
+
+    private EventThread()
+    {
+
+    }
+
+    /**
+     * Runs the given code on the event dispatch thread and waits for it to finish.
+     *
+     * @param code the code to be run
+     */
+    static void run(Runnable code)
+    {
+        try
+        {
+            SwingUtilities.invokeAndWait(code);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch(InvocationTargetException e)
+        {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs the given operation <code>BATCH</code> times on the event dispatch thread and waits for
+     * the batch to finish.
+     *
+     * @param operation the operation to be run
+     */
+    static void runBatch(Runnable operation)
+    {
+        run(() ->
+        {
+            for(int i = 0; i < BATCH; i++)
+            {
+                operation.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import core.app.element.Label;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the text of a <code>Label</code> to texts of the same width, which only replaces the text,
+ * and to texts of changing widths, which also resizes the label. The label is used on the event
+ * dispatch thread, as it would be in a window.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class LabelBenchmark
+{
+    /**
+     * The number of texts that are cycled through. Must be a power of two.
+     */
+    private static final int INPUTS = 1024;
+
+    @Param({"same", "changing"})
+    private String width;
+
+    private Label label;
+
+    private String[] texts;
+
+    private int index = 0;
+
+    @Setup
+    public void setUp()
+    {
+        EventThread.run(() -> label = new Label("Value 0000"));
+        texts = new String[INPUTS];
+        for(int i = 0; i < INPUTS; i++)
+        {
+            texts[i] = width.equals("same") ? "Value " + String.format("%04d", i) : "Value " + (i % 2 == 0 ? i : i * 1000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EventThread.BATCH)
+    public void setText()
+    {
+        EventThread.runBatch(() -> label.setText(texts[index++ & (INPUTS - 1)]));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import core.FixedMaths;
+import core.Maths;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every operation of <code>Maths</code>, and of <code>FixedMaths</code> which gives the same
+ * results, over values of many magnitudes. No value is zero, so every division has a result.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MathsBenchmark
+{
+    /**
+     * The number of pairs of values that are cycled through. Must be a power of two.
+     */
+    private static final int INPUTS = 1024;
+
+    private double[] values;
+
+    private int index = 0;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(2016);
+        values = new double[INPUTS + 1];
+        for(int i = 0; i < values.length; i++)
+        {
+            double value = Math.rint(Math.pow(10, random.nextDouble() * 12 - 4) * 1000) / 1000;
+            values[i] = (value == 0 ? 0.001 : value) * (random.nextBoolean() ? 1 : -1);
+        }
+    }
+
+    @Benchmark
+    public void addMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(Maths.add(values[i], values[i + 1]));
+    }
+
+    @Benchmark
+    public void addFixedMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(FixedMaths.add(values[i], values[i + 1]));
+    }
+
+    @Benchmark
+    public void subtractMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(Maths.subtract(values[i], values[i + 1]));
+    }
+
+    @Benchmark
+    public void subtractFixedMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(FixedMaths.subtract(values[i], values[i + 1]));
+    }
+
+    @Benchmark
+    public void multiplyMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(Maths.multiply(values[i], values[i + 1]));
+    }
+
+    @Benchmark
+    public void multiplyFixedMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(FixedMaths.multiply(values[i], values[i + 1]));
+    }
+
+    @Benchmark
+    public void divideMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(Maths.divide(values[i], values[i + 1], 4));
+    }
+
+    @Benchmark
+    public void divideFixedMaths(Blackhole blackhole)
+    {
+        int i = index++ & (INPUTS - 1);
+        blackhole.consume(FixedMaths.divide(values[i], values[i + 1], 4));
+    }
+
+    @Benchmark
+    public void roundMaths(Blackhole blackhole)
+    {
+        blackhole.consume(Maths.round(values[index++ & (INPUTS - 1)], 2));
+    }
+
+    @Benchmark
+    public void roundFixedMaths(Blackhole blackhole)
+    {
+        blackhole.consume(FixedMaths.round(values[index++ & (INPUTS - 1)], 2));
+    }
+}
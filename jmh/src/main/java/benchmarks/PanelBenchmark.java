@@ -0,0 +1,98 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import core.app.element.Label;
+import core.app.element.Layouts;
+import core.app.element.VerticalPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses a panel of 10 and 100 labels when nothing has changed, and after the text of one label
+ * has been changed, in which case the panel is then laid out as it would be before it is next
+ * painted. The panel is given a peer of its own so that it can be laid out headless, and is used on
+ * the event dispatch thread, as it would be in a window.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PanelBenchmark
+{
+    private static final String[] TEXTS = {"Short", "A longer text"};
+
+    @Param({"10", "100"})
+    private int rows;
+
+    private VerticalPanel panel;
+
+    private Label[] labels;
+
+    private int index = 0;
+
+    @Setup
+    public void setUp()
+    {
+        EventThread.run(this::createPanel);
+    }
+
+    private void createPanel()
+    {
+        panel = new VerticalPanel(Layouts.LEFT, Layouts.TOP);
+        labels = new Label[rows];
+        for(int i = 0; i < rows; i++)
+        {
+            labels[i] = new Label("Row " + i);
+            panel.add(labels[i]);
+        }
+        panel.addNotify();
+        panel.collapse();
+        panel.validate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EventThread.BATCH)
+    public void collapseUnchanged()
+    {
+        EventThread.runBatch(panel::collapse);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EventThread.BATCH)
+    public void collapseOneChanged(Blackhole blackhole)
+    {
+        EventThread.runBatch(() ->
+        {
+            int i = index++;
+            labels[i % rows].setText(TEXTS[(i / rows) & 1]);
+            panel.collapse();
+            panel.validate();
+            blackhole.consume(panel.getWidth());
+        });
+    }
+}
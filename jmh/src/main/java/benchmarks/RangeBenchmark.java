@@ -0,0 +1,75 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import core.data.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the value of a <code>Range</code> to values inside its limits, which are kept, and to values
+ * outside them, which are constrained to the limits.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RangeBenchmark
+{
+    /**
+     * The number of values that are cycled through. Must be a power of two.
+     */
+    private static final int INPUTS = 1024;
+
+    @Param({"true", "false"})
+    private boolean isInRange;
+
+    private Range<Double> range;
+
+    private Double[] values;
+
+    private int index = 0;
+
+    @Setup
+    public void setUp()
+    {
+        range = new Range<>(0.0, 100.0, 50.0);
+        values = new Double[INPUTS];
+        Random random = new Random(2016);
+        for(int i = 0; i < INPUTS; i++)
+        {
+            values[i] = isInRange ? random.nextDouble() * 100 : 100 + random.nextDouble() * 100;
+        }
+    }
+
+    @Benchmark
+    public void setValue(Blackhole blackhole)
+    {
+        range.setValue(values[index++ & (INPUTS - 1)]);
+        blackhole.consume(range.getValue());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import core.data.DoubleColumn;
+import core.data.RowOrder;
+import core.data.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Filters and sorts tables of 1,000,000 and 10,000,000 rows with a <code>RowOrder</code>, on a pool
+ * of one thread and on the common pool. The table has a column of random values and a column of a
+ * few repeated values. Each benchmark waits for its order to be published.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class SortBenchmark
+{
+    @Param({"1000000", "10000000"})
+    private int rowCount;
+
+    @Param({"single", "common"})
+    private String pool;
+
+    private ForkJoinPool forkJoinPool;
+
+    private Table table;
+
+    private IntPredicate isPositive;
+
+    private RowOrder unfiltered;
+
+    private RowOrder filtered;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        forkJoinPool = pool.equals("single") ? new ForkJoinPool(1) : ForkJoinPool.commonPool();
+        table = new Table("Sort");
+        table.setRowCount(rowCount);
+        DoubleColumn values = table.addColumn(new DoubleColumn("Values"));
+        DoubleColumn groups = table.addColumn(new DoubleColumn("Groups"));
+        Random random = new Random(2016);
+        for(int row = 0; row < rowCount; row++)
+        {
+            values.setDouble(row, random.nextGaussian());
+            groups.setDouble(row, random.nextInt(100));
+        }
+        isPositive = (row) -> values.getDouble(row) > 0;
+        unfiltered = new RowOrder(table, forkJoinPool);
+        filtered = new RowOrder(table, forkJoinPool);
+        filtered.filter(isPositive).join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        if(forkJoinPool != ForkJoinPool.commonPool())
+        {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int[] filter()
+    {
+        return unfiltered.filter(isPositive).join();
+    }
+
+    @Benchmark
+    public int[] filterAndSort()
+    {
+        return filtered.sort(1, true).join();
+    }
+
+    @Benchmark
+    public int[] sort()
+    {
+        return unfiltered.sort(1, true).join();
+    }
+
+    @Benchmark
+    public int[] sortDescending()
+    {
+        return unfiltered.sort(0, false).join();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package benchmarks;
+
+import core.Updater;
+import core.Updating;
+import core.app.element.active.ItemController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates a parent linked to 1, 10 and 1,000 children, with no sink, so that the children are
+ * updated on the benchmark thread, and with the <code>ItemController</code> as the sink, which only
+ * updates children on the event dispatch thread, so with it the updates are made there.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class UpdaterBenchmark
+{
+    @Param({"1", "10", "1000"})
+    private int children;
+
+    @Param({"none", "swing"})
+    private String sink;
+
+    private Updating parent;
+
+    /**
+     * The linked children, which are held here because the <code>Updater</code> only holds them
+     * weakly.
+     */
+    private List<Updating> linked;
+
+    private int updates;
+
+    @Setup
+    public void setUp()
+    {
+        if(sink.equals("swing"))
+        {
+            ItemController.get();
+        }
+        parent = (p) -> {};
+        linked = new ArrayList<>();
+        for(int i = 0; i < children; i++)
+        {
+            Updating child = (p) -> updates++;
+            linked.add(child);
+            Updater.get().addChild(parent, child);
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        for(Updating child : linked)
+        {
+            Updater.get().removeChild(parent, child);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EventThread.BATCH)
+    public void fanOut(Blackhole blackhole)
+    {
+        if(Updater.get().getSink() != null)
+        {
+            EventThread.runBatch(() -> Updater.get().update(parent));
+        }
+        else
+        {
+            for(int i = 0; i < EventThread.BATCH; i++)
+            {
+                Updater.get().update(parent);
+            }
+        }
+        blackhole.consume(updates);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element;
+
+import core.Updater;
+import core.Updating;
+import core.app.element.active.CheckBox;
+import core.app.element.active.Meter;
+import core.app.element.active.Spinner;
+import core.data.BooleanVariable;
+import core.data.DoubleVariable;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that opening and closing 10,000 dialogs bound to the same variables leaves the heap flat.
+ * Each dialog is the content of a dialog window: a <code>Layouter</code> holding a label and a
+ * meter, a check box and a spinner bound to the shared variables. Closing a dialog removes its
+ * elements and drops it, as disposing a dialog window does. Dialogs are opened and closed on the
+ * event dispatch thread, which is left to run its pending repaints between the two, as it would be
+ * while a dialog is shown.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class DialogFootprintTest
+{
+    private static final int DIALOGS = 10000;
+
+    private static final int DIALOGS_PER_ROUND = 1000;
+
+    /**
+     * The most heap that each closed dialog may leave behind, which allows for noise in the
+     * measurement.
+     */
+    private static final long MAX_RETAINED_PER_DIALOG = 1024;
+
+    /**
+     * The variables that every dialog is bound to, which live for as long as the application does.
+     */
+    private final DoubleVariable value = new DoubleVariable(0, 100, 50);
+
+    private final BooleanVariable flag = new BooleanVariable(true);
+
+    @Test
+    public void closedDialogsAreUnlinkedAndCollected() throws Exception
+    {
+        close(open(DIALOGS_PER_ROUND));
+        long before = usedHeap();
+        for(int round = 1; round <= DIALOGS / DIALOGS_PER_ROUND; round++)
+        {
+            List<Layouter> dialogs = open(DIALOGS_PER_ROUND);
+            assertEquals(DIALOGS_PER_ROUND * 3, linkedItems());
+            close(dialogs);
+            dialogs = null;
+            assertEquals("Items of closed dialogs still linked after round " + round, 0, linkedItems());
+        }
+        long retained = Math.max(0, usedHeap() - before) / DIALOGS;
+        assertTrue(retained + " bytes are retained per closed dialog", retained <= MAX_RETAINED_PER_DIALOG);
+    }
+
+    private List<Layouter> open(int count) throws Exception
+    {
+        List<Layouter> dialogs = new ArrayList<>(count);
+        SwingUtilities.invokeAndWait(() ->
+        {
+            for(int i = 0; i < count; i++)
+            {
+                Layouter dialog = new Layouter();
+                dialog.add(new Label("Dialog " + i));
+                dialog.add(new Meter<>(value, true));
+                dialog.add(new CheckBox(flag, true));
+                dialog.add(new Spinner<>(value, true));
+                dialogs.add(dialog);
+            }
+        });
+        return dialogs;
+    }
+
+    private static void close(List<Layouter> dialogs) throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            for(Layouter dialog : dialogs)
+            {
+                dialog.removeAllElements();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of items linked to the shared variables that have not been garbage
+     * collected.
+     */
+    private int linkedItems() throws Exception
+    {
+        usedHeap();
+        Updater.get().purge();
+        int count = 0;
+        for(Updating variable : new Updating[]{value, flag})
+        {
+            List<Updating> items = Updater.get().getItems(variable);
+            count += items == null ? 0 : items.size();
+        }
+        return count;
+    }
+
+    /**
+     * Lets the event dispatch thread run the repaints left by the last round and returns the heap
+     * used once it has been garbage collected.
+     */
+    private static long usedHeap() throws Exception
+    {
+        SwingUtilities.invokeAndWait(() -> { });
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
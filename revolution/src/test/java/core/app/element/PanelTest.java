@@ -0,0 +1,50 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element;
+
+import org.junit.Test;
+
+import javax.swing.*;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that each panel built while updates are deferred is listed, and so revalidated, only once.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class PanelTest
+{
+    @Test
+    public void listsEachDeferredPanelOnce() throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            Panel.beginDeferral();
+            try
+            {
+                Panel parent = new Panel();
+                Panel child = new Panel(parent);
+                parent.setBorder(BorderFactory.createEmptyBorder(1, 1, 1, 1));
+                child.update();
+                List<Panel> panels = Panel.getDeferredPanels();
+                assertEquals(2, panels.size());
+                assertSame(parent, panels.get(0));
+                assertSame(child, panels.get(1));
+            }
+            finally
+            {
+                Panel.endDeferral();
+            }
+        });
+    }
+}
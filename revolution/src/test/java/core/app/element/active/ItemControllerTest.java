@@ -0,0 +1,42 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element.active;
+
+import core.data.Aggregate;
+import core.data.DoubleVariable;
+import org.junit.Test;
+
+import javax.swing.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that changes made off the event dispatch thread, which are drained in batches, reach
+ * every linked object.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class ItemControllerTest
+{
+    @Test
+    public void drainsEveryChangeMadeOffEventDispatchThread() throws Exception
+    {
+        ItemController.get();
+        DoubleVariable x = new DoubleVariable(2);
+        DoubleVariable y = new DoubleVariable(10);
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, x, y);
+        Aggregate max = new Aggregate(Aggregate.Function.MAXIMUM, x, y);
+        x.setDouble(100);
+        y.setDouble(200);
+        SwingUtilities.invokeAndWait(() -> {});
+        assertEquals(300, sum.getDouble(), 0);
+        assertEquals(200, max.getDouble(), 0);
+    }
+}
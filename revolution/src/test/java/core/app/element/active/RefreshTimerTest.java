@@ -0,0 +1,47 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element.active;
+
+import core.data.DoubleVariable;
+import org.junit.Test;
+
+import javax.swing.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that an item whose maximum refresh rate is removed while it is waiting for the
+ * <code>RefreshTimer</code> is refreshed straight away.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class RefreshTimerTest
+{
+    @Test
+    public void refreshesDirtyItemWhenRateIsRemoved() throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            DoubleVariable x = new DoubleVariable(1.5);
+            Meter<Double> meter = new Meter<>(x, false);
+            meter.setMaxRefreshRate(1);
+            meter.setLastRefreshTime(System.nanoTime());
+            x.setDouble(2.5);
+            assertTrue(RefreshTimer.get().isDirty(meter));
+            assertEquals("1.5", meter.getText());
+            meter.setMaxRefreshRate(0);
+            assertFalse(RefreshTimer.get().isDirty(meter));
+            assertEquals("2.5", meter.getText());
+            assertEquals(0, meter.getRefreshInterval());
+        });
+    }
+}
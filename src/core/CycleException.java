@@ -0,0 +1,29 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core;
+
+/**
+ * Exception created when linking a child object to a parent object in an <code>Updater</code> would
+ * create a cycle, so that a change to the parent would eventually be propagated back to itself.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class CycleException extends RuntimeException
+{
+
+    /**
+     * Exception created when linking a child object to a parent object in an <code>Updater</code> would
+     * create a cycle.
+     */
+    public CycleException(Updating parent, Updating child)
+    {
+        super("Cannot link " + child + " to " + parent + " as " + parent + " already depends on it");
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A class with the same static methods as <code>Maths</code> that gives exactly the same results
+ * without creating any objects. Each value is first rounded to seven significant digits, as it is
+ * when it is wrapped by <code>Maths</code>, and is then held as a <code>long</code> scaled by a
+ * power of ten. The arithmetic is done on the scaled values, with results rounded using
+ * <code>RoundingMode.HALF_EVEN</code>, and the result is converted to the nearest
+ * <code>double</code>.
+ * <p>
+ * Values with a magnitude between 1e-11 and 2^62, and results that can be converted back to a
+ * <code>double</code> with a single multiplication or division, are handled without any objects
+ * being created. Anything else, including <code>NaN</code> and infinite values, is passed to
+ * <code>Maths</code>, so the results are always the same.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public final class FixedMaths
+{
+
+    /**
+     * Returned by <code>wrap</code> when a value is outside the range handled by this class.
+     */
+    private static final long UNSUPPORTED = Long.MIN_VALUE;
+
+    /**
+     * The smallest magnitude handled without falling back to <code>Maths</code>.
+     */
+    private static final double MIN_MAGNITUDE = 1e-11;
+
+    /**
+     * The largest magnitude handled without falling back to <code>Maths</code>.
+     */
+    private static final double MAX_MAGNITUDE = 0x1p62;
+
+    /**
+     * The number of significant digits that values are rounded to, as in <code>MathContext.DECIMAL32</code>.
+     */
+    private static final long MIN_DIGITS = 1000000L;
+
+    private static final long MAX_DIGITS = 10000000L;
+
+    /**
+     * The powers of ten that can be held exactly in a <code>long</code>.
+     */
+    private static final long[] LONG_POWERS = new long[19];
+
+    /**
+     * The powers of five that can be held exactly in a <code>long</code>.
+     */
+    private static final long[] FIVE_POWERS = new long[28];
+
+    /**
+     * The powers of ten that can be held exactly in a <code>double</code>.
+     */
+    private static final double[] DOUBLE_POWERS = new double[23];
+
+    static
+    {
+        LONG_POWERS[0] = 1;
+        for(int i = 1; i < LONG_POWERS.length; i++)
+        {
+            LONG_POWERS[i] = LONG_POWERS[i - 1] * 10;
+        }
+        FIVE_POWERS[0] = 1;
+        for(int i = 1; i < FIVE_POWERS.length; i++)
+        {
+            FIVE_POWERS[i] = FIVE_POWERS[i - 1] * 5;
+        }
+        DOUBLE_POWERS[0] = 1;
+        for(int i = 1; i < DOUBLE_POWERS.length; i++)
+        {
+            DOUBLE_POWERS[i] = DOUBLE_POWERS[i - 1] * 10;
+        }
+    }
+
+    private FixedMaths(){}
+
+    /**
+     * Returns the sum of the given values.
+     *
+     * @param value1 the first value to be added
+     * @param value2 the second value, which is added to value1
+     * @return a <code>double</code> that is the sum of value1 and value2
+     */
+    public static double add(double value1, double value2)
+    {
+        long wrapped1 = wrap(value1);
+        long wrapped2 = wrap(value2);
+        if(wrapped1 == UNSUPPORTED || wrapped2 == UNSUPPORTED)
+        {
+            return Maths.add(value1, value2);
+        }
+        return sum(digits(wrapped1), exponent(wrapped1), digits(wrapped2), exponent(wrapped2), value1, value2);
+    }
+
+    /**
+     * Returns the result of the second value subtracted from the first value.
+     *
+     * @param value1 the value to be subtracted from
+     * @param value2 the value that is subtracted from value1
+     * @return a <code>double</code> that results from the subtraction of value1
+     * from value2
+     */
+    public static double subtract(double value1, double value2)
+    {
+        long wrapped1 = wrap(value1);
+        long wrapped2 = wrap(value2);
+        if(wrapped1 == UNSUPPORTED || wrapped2 == UNSUPPORTED)
+        {
+            return Maths.subtract(value1, value2);
+        }
+        return sum(digits(wrapped1), exponent(wrapped1), -digits(wrapped2), exponent(wrapped2), value1, -value2);
+    }
+
+    /**
+     * Returns the result of a multiplication of the given values.
+     *
+     * @param value1 the first value to be multiplied
+     * @param value2 the second value to be multiplied
+     * @return a <code>double</code> that results from the multiplication of
+     * value1 and value2
+     */
+    public static double multiply(double value1, double value2)
+    {
+        long wrapped1 = wrap(value1);
+        long wrapped2 = wrap(value2);
+        if(wrapped1 == UNSUPPORTED || wrapped2 == UNSUPPORTED)
+        {
+            return Maths.multiply(value1, value2);
+        }
+        return toDouble(digits(wrapped1) * digits(wrapped2), exponent(wrapped1) + exponent(wrapped2));
+    }
+
+    /**
+     * Returns the result of a division of the first value divided by the second value.
+     *
+     * @param value1 the dividend
+     * @param value2 the divisor, or that value that value1 is divided by
+     * @param scale the number of decimal places allowable in the result
+     * @return a <code>double</code> that results from the division of
+     * value1 by value2
+     * @throws ArithmeticException if value2 rounds to zero
+     */
+    public static double divide(double value1, double value2, int scale)
+    {
+        long wrapped1 = wrap(value1);
+        long wrapped2 = wrap(value2);
+        if(wrapped1 == UNSUPPORTED || wrapped2 == UNSUPPORTED)
+        {
+            return Maths.divide(value1, value2, scale);
+        }
+        long dividend = digits(wrapped1);
+        long divisor = digits(wrapped2);
+        if(divisor == 0)
+        {
+            throw new ArithmeticException(dividend == 0 ? "Division undefined" : "Division by zero");
+        }
+        // the result is dividend / divisor * 10^shift, rounded to an integer and then scaled by 10^-scale
+        long shift = (long)exponent(wrapped1) - exponent(wrapped2) + scale;
+        if(shift > 11)
+        {
+            return Maths.divide(value1, value2, scale);
+        }
+        if(shift < -11)
+        {
+            // the quotient is less than a half before it is scaled, so it rounds to zero
+            return 0.0;
+        }
+        if(shift >= 0)
+        {
+            dividend *= LONG_POWERS[(int)shift];
+        }
+        else
+        {
+            divisor *= LONG_POWERS[(int)-shift];
+        }
+        return toDouble(divideHalfEven(dividend, divisor), -scale);
+    }
+
+    /**
+     * Rounds a value up or down.
+     *
+     * @param value the value to be rounded
+     * @param scale the number of decimal places the value is to be rounded to.
+     * @return a <code>double</code> that results from the rounding operation
+     */
+    public static double round(double value, int scale)
+    {
+        long wrapped = wrap(value);
+        if(wrapped == UNSUPPORTED)
+        {
+            return Maths.round(value, scale);
+        }
+        long digits = digits(wrapped);
+        int exponent = exponent(wrapped);
+        if(exponent >= -scale)
+        {
+            return toDouble(digits, exponent);
+        }
+        long shift = (long)-scale - exponent;
+        if(shift >= 8)
+        {
+            return 0.0;
+        }
+        return toDouble(divideHalfEven(digits, LONG_POWERS[(int)shift]), -scale);
+    }
+
+    /**
+     * Rounds a value in the same way as <code>round</code> and returns it as an unscaled
+     * <code>long</code>, so that the rounded value is the returned value multiplied by 10^-scale.
+     * For example, 3.14159 with a scale of 2 returns 314.
+     *
+     * @param value the value to be rounded
+     * @param scale the number of decimal places the value is to be rounded to.
+     * @return a <code>long</code> that is the rounded value without its decimal point
+     * @throws ArithmeticException if the unscaled value does not fit in a <code>long</code>
+     */
+    public static long toUnscaled(double value, int scale)
+    {
+        long wrapped = wrap(value);
+        if(wrapped != UNSUPPORTED)
+        {
+            long digits = digits(wrapped);
+            long shift = (long)exponent(wrapped) + scale;
+            if(shift >= 0 && shift <= 11)
+            {
+                return digits * LONG_POWERS[(int)shift];
+            }
+            if(shift < 0 && shift > -8)
+            {
+                return divideHalfEven(digits, LONG_POWERS[(int)-shift]);
+            }
+            if(shift <= -8)
+            {
+                return 0;
+            }
+        }
+        return Maths.wrap(value).setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Rounds the given value to seven significant digits, as <code>Maths.wrap</code> does, and
+     * returns the digits and decimal exponent packed into a <code>long</code>. The digits are held
+     * in the upper bits and can be read with <code>digits</code>, and the exponent is held in the
+     * lowest eight bits and can be read with <code>exponent</code>.
+     *
+     * @return the packed value, or <code>UNSUPPORTED</code> if the magnitude of the value is
+     * outside the range handled by this class
+     */
+    private static long wrap(double value)
+    {
+        if(value == 0)
+        {
+            return pack(0, 0);
+        }
+        double magnitude = Math.abs(value);
+        if(!(magnitude >= MIN_MAGNITUDE && magnitude < MAX_MAGNITUDE))
+        {
+            return UNSUPPORTED;
+        }
+        long bits = Double.doubleToRawLongBits(magnitude);
+        long significand = (bits & 0xFFFFFFFFFFFFFL) | 0x10000000000000L;
+        int binaryExponent = (int)(bits >>> 52) - 1075;
+        int exponent = (int)Math.floor(Math.log10(magnitude)) - 6;
+        long quotient = truncate(significand, binaryExponent, exponent);
+        // log10 can be out by one near a power of ten
+        while((quotient >> 2) >= MAX_DIGITS)
+        {
+            exponent++;
+            quotient = truncate(significand, binaryExponent, exponent);
+        }
+        while((quotient >> 2) < MIN_DIGITS)
+        {
+            exponent--;
+            quotient = truncate(significand, binaryExponent, exponent);
+        }
+        long digits = quotient >> 2;
+        int remainder = (int)(quotient & 3);
+        if(remainder == 2 || (remainder == 1 && (digits & 1) == 1))
+        {
+            digits++;
+            if(digits == MAX_DIGITS)
+            {
+                digits = MIN_DIGITS;
+                exponent++;
+            }
+        }
+        return pack(value < 0 ? -digits : digits, exponent);
+    }
+
+    /**
+     * Divides significand * 2^binaryExponent by 10^exponent and returns the truncated quotient
+     * shifted left by two bits. The lowest two bits describe the part that was truncated: 0 if it
+     * is less than a half, 1 if it is exactly a half and 2 if it is more than a half.
+     */
+    private static long truncate(long significand, int binaryExponent, int exponent)
+    {
+        if(exponent >= 0)
+        {
+            if(binaryExponent >= 0)
+            {
+                long numerator = significand << binaryExponent;
+                long divisor = LONG_POWERS[exponent];
+                long remainder = numerator % divisor;
+                return (numerator / divisor) << 2 | compareHalf(remainder, divisor);
+            }
+            // significand / (5^exponent * 2^(exponent - binaryExponent))
+            long fives = FIVE_POWERS[exponent];
+            long quotient = significand / fives;
+            long remainder = significand % fives;
+            int shift = exponent - binaryExponent;
+            long low = quotient & ((1L << shift) - 1);
+            long half = 1L << (shift - 1);
+            int position = low < half ? 0 : low > half || remainder != 0 ? 2 : 1;
+            return (quotient >>> shift) << 2 | position;
+        }
+        // significand * 10^-exponent / 2^-binaryExponent, using a 128 bit product
+        long power = LONG_POWERS[-exponent];
+        long high = multiplyHigh(significand, power);
+        long low = significand * power;
+        int shift = -binaryExponent;
+        if(shift < 64)
+        {
+            long remainder = low & ((1L << shift) - 1);
+            long half = 1L << (shift - 1);
+            long quotient = high << (64 - shift) | low >>> shift;
+            int position = remainder < half ? 0 : remainder > half ? 2 : 1;
+            return quotient << 2 | position;
+        }
+        if(shift == 64)
+        {
+            int compare = Long.compareUnsigned(low, Long.MIN_VALUE);
+            return high << 2 | (compare < 0 ? 0 : compare > 0 ? 2 : 1);
+        }
+        long remainder = high & ((1L << (shift - 64)) - 1);
+        long half = 1L << (shift - 65);
+        int position = remainder < half ? 0 : remainder > half || low != 0 ? 2 : 1;
+        return (high >>> (shift - 64)) << 2 | position;
+    }
+
+    /**
+     * Returns the upper 64 bits of the 128 bit product of two non-negative <code>long</code> values.
+     */
+    private static long multiplyHigh(long value1, long value2)
+    {
+        long high1 = value1 >>> 32;
+        long low1 = value1 & 0xFFFFFFFFL;
+        long high2 = value2 >>> 32;
+        long low2 = value2 & 0xFFFFFFFFL;
+        long lowLow = low1 * low2;
+        long lowHigh = low1 * high2;
+        long highLow = high1 * low2;
+        long carry = (lowLow >>> 32) + (lowHigh & 0xFFFFFFFFL) + (highLow & 0xFFFFFFFFL);
+        return high1 * high2 + (lowHigh >>> 32) + (highLow >>> 32) + (carry >>> 32);
+    }
+
+    /**
+     * Compares a non-negative remainder with half of the divisor, returning 0 if it is less,
+     * 1 if it is equal and 2 if it is greater.
+     */
+    private static int compareHalf(long remainder, long divisor)
+    {
+        long twice = remainder << 1;
+        return twice < divisor ? 0 : twice > divisor ? 2 : 1;
+    }
+
+    /**
+     * Divides one <code>long</code> by another and rounds the result using <code>RoundingMode.HALF_EVEN</code>.
+     */
+    private static long divideHalfEven(long dividend, long divisor)
+    {
+        boolean isNegative = (dividend < 0) != (divisor < 0);
+        dividend = Math.abs(dividend);
+        divisor = Math.abs(divisor);
+        long quotient = dividend / divisor;
+        int position = compareHalf(dividend % divisor, divisor);
+        if(position == 2 || (position == 1 && (quotient & 1) == 1))
+        {
+            quotient++;
+        }
+        return isNegative ? -quotient : quotient;
+    }
+
+    /**
+     * Adds two scaled values exactly and converts the sum to a <code>double</code>, falling back to
+     * <code>Maths</code> if the exponents are too far apart.
+     */
+    private static double sum(long digits1, int exponent1, long digits2, int exponent2, double value1, double value2)
+    {
+        int exponent = Math.min(exponent1, exponent2);
+        if(exponent1 - exponent > 11 || exponent2 - exponent > 11)
+        {
+            return Maths.add(value1, value2);
+        }
+        return toDouble(digits1 * LONG_POWERS[exponent1 - exponent] + digits2 * LONG_POWERS[exponent2 - exponent], exponent);
+    }
+
+    /**
+     * Returns the <code>double</code> nearest to digits * 10^exponent. When both the digits and the
+     * power of ten can be held exactly in a <code>double</code>, a single multiplication or division
+     * gives the correctly rounded result. Otherwise the value is converted by <code>BigDecimal</code>.
+     */
+    private static double toDouble(long digits, int exponent)
+    {
+        if(digits == 0)
+        {
+            return 0.0;
+        }
+        while(exponent < 0 && digits % 10 == 0)
+        {
+            digits /= 10;
+            exponent++;
+        }
+        if(Math.abs(digits) <= (1L << 53))
+        {
+            if(exponent >= 0 && exponent < DOUBLE_POWERS.length)
+            {
+                return digits * DOUBLE_POWERS[exponent];
+            }
+            if(exponent < 0 && -exponent < DOUBLE_POWERS.length)
+            {
+                return digits / DOUBLE_POWERS[-exponent];
+            }
+        }
+        return BigDecimal.valueOf(digits, -exponent).doubleValue();
+    }
+
+    private static long pack(long digits, int exponent)
+    {
+        return digits << 8 | (exponent + 128);
+    }
+
+    private static long digits(long wrapped)
+    {
+        return wrapped >> 8;
+    }
+
+    private static int exponent(long wrapped)
+    {
+        return (int)(wrapped & 0xFF) - 128;
+    }
+}
@@ -6,7 +6,7 @@
  *
  */
 
-package core.app;
+package core;
 
 /**
  * Abstract class used to provide fields and constructors for classes that have names.
@@ -6,7 +6,7 @@
  *
  */
 
-package core.app;
+package core;
 
 /**
  * Interface providing functionality for objects that have names. Objects can also have a display name
@@ -0,0 +1,116 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe queue of changed parent objects that conflates repeated changes. A parent object
+ * is only held once however many times it changes before it is taken from the queue, so whoever
+ * drains the queue reads each parent's latest value and the work done is bounded by the number
+ * of distinct parents rather than by the rate at which they change.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class UpdateQueue
+{
+
+    /**
+     * The parent objects waiting to be taken, in the order in which they were first queued.
+     */
+    private ConcurrentLinkedQueue<Updating> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The parent objects that are currently in the queue, used to avoid queueing a parent twice.
+     */
+    private Set<Updating> queued = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The number of changes offered to this queue.
+     */
+    private LongAdder received = new LongAdder();
+
+    /**
+     * The number of parent objects taken from this queue.
+     */
+    private LongAdder delivered = new LongAdder();
+
+    /**
+     * Records a change to the given parent object. If the parent is already waiting in the queue
+     * the change is conflated with the earlier one.
+     *
+     * @param parent the parent object that has changed
+     * @return <code>true</code> if the parent was added to the queue and <code>false</code> if it
+     * was already waiting in the queue
+     */
+    public boolean offer(Updating parent)
+    {
+        received.increment();
+        if(queued.add(parent))
+        {
+            queue.add(parent);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes the parent object that has been waiting longest. The parent leaves the queue before
+     * it is returned, so any change made to it from then on queues it again.
+     *
+     * @return the parent object that has been waiting longest, or <code>null</code> if the queue
+     * is empty
+     */
+    public Updating poll()
+    {
+        Updating parent = queue.poll();
+        if(parent != null)
+        {
+            queued.remove(parent);
+            delivered.increment();
+        }
+        return parent;
+    }
+
+    /**
+     * Indicates whether or not any parent objects are waiting in the queue.
+     *
+     * @return <code>true</code> if the queue is empty and <code>false</code> if not
+     */
+    public boolean isEmpty()
+    {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Returns the number of changes offered to this queue since it was created.
+     *
+     * @return a <code>long</code> indicating the number of changes offered to this queue
+     */
+    public long getReceived()
+    {
+        return received.sum();
+    }
+
+    /**
+     * Returns the number of parent objects taken from this queue since it was created. The
+     * difference between this and <code>getReceived()</code> is the number of changes that were
+     * conflated, plus any still waiting in the queue.
+     *
+     * @return a <code>long</code> indicating the number of parent objects taken from this queue
+     */
+    public long getDelivered()
+    {
+        return delivered.sum();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core;
+
+/**
+ * Receives the changes propagated by an <code>Updater</code> so that they can be shown, for
+ * example by a user interface that may only be changed on a thread of its own. Without a sink the
+ * <code>Updater</code> updates child objects on the thread that changed the parent and does
+ * nothing once an epoch has finished, which is all that is needed where nothing is shown.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public interface UpdateSink
+{
+    /**
+     * Called when a parent object that has children changes, before any of them are updated. A
+     * sink that updates children on a thread of its own takes the change and returns
+     * <code>true</code>, and later passes it back to <code>Updater.update</code> on that thread,
+     * where it returns <code>false</code> so that the children are updated.
+     *
+     * @param parent the parent object that has changed
+     * @return <code>true</code> if the sink has taken the change and <code>false</code> if the
+     * children are to be updated straight away
+     */
+    boolean offer(Updating parent);
+
+    /**
+     * Updates a child object that depends on a parent object that has changed.
+     *
+     * @param parent the parent object that caused the child to be updated
+     * @param child the child object to be updated
+     */
+    void updateChild(Updating parent, Updating child);
+
+    /**
+     * Called once each epoch has finished, so that the objects updated during the epoch can be
+     * shown.
+     */
+    void refresh();
+}
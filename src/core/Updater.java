@@ -8,56 +8,198 @@
 
 package core;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Singleton that coordinates changes in objects that inherit <code>Updating</code>.
  * Adding an object to the controller allows other objects to be linked to it so
  * that any changes to that object will be reflected in the linked objects.
+ * <p>
+ * The links form a dependency graph in which every object has a rank that is higher than the
+ * rank of each of its parents. When a parent changes, a new epoch is started and the objects that
+ * depend on it are updated in rank order, so that an object is only updated once all of the
+ * objects it depends on have been updated. An object is updated once for each of its parents that
+ * changed before it was updated, with that parent passed to <code>update()</code>, and once it has
+ * been updated it is not updated again in the same epoch, which is what stops changes looping back
+ * and forth between linked objects. Links that would create a cycle are refused when they are added.
+ * <p>
+ * Objects can be linked and unlinked from any thread. Looking up a parent does not lock, and
+ * linking or unlinking only locks the graph while it is changed. Changes are propagated on one
+ * thread at a time.
+ * <p>
+ * Objects in the graph are only weakly referenced, so linking an object such as an item to a
+ * variable does not keep the item in memory once nothing else uses it. Links to objects that have
+ * been garbage collected are removed in bulk by <code>purge()</code>, which is also called whenever
+ * an object is linked or a parent is updated. Because of this, a child object must be referenced
+ * elsewhere for as long as it needs to be updated.
+ * <p>
+ * The objects that hold data, such as variables and tables, share the <code>Updater</code> returned
+ * by <code>get()</code>. It does not depend on any user interface: children are updated on the
+ * thread that changed their parent until an <code>UpdateSink</code> is set, which a user interface
+ * uses to update its components on a thread of its own and to show them once an epoch has finished.
  *
  * @author Andrew Reilly
  * @version 1.1.0
  */
 public class Updater
 {
+    private static final Updater instance = new Updater();
 
     /**
-     * A <code>HashMap</code> that links a parent object to child objects that need
-     * to be updated when the parent changes.
+     * The sink that changes are passed to, or <code>null</code> if children are updated straight
+     * away on the thread that changed their parent.
      */
-    private HashMap<Updating, ArrayList<Updating>> items;
+    private volatile UpdateSink sink = null;
+
+    /**
+     * A <code>ConcurrentHashMap</code> that links a parent object to the node holding the child
+     * objects that need to be updated when the parent changes. Only objects that have been added
+     * as parents are held here, and they are held strongly until their last child is removed.
+     */
+    private ConcurrentHashMap<Updating, Node> items = new ConcurrentHashMap<>();
+
+    /**
+     * Every object in the graph mapped to its node. The objects are weakly referenced. This is
+     * only used while the graph is changed and is guarded by <code>graphLock</code>.
+     */
+    private WeakHashMap<Updating, Node> nodes = new WeakHashMap<>();
+
+    /**
+     * The lock that is held while the graph is changed.
+     */
+    private final Object graphLock = new Object();
+
+    /**
+     * The queue that nodes of garbage collected objects are added to.
+     */
+    private ReferenceQueue<Updating> staleNodes = new ReferenceQueue<>();
+
+    /**
+     * The number of the current, or most recent, epoch.
+     */
+    private long epoch = 0;
+
+    /**
+     * Indicates whether or not an epoch is in progress.
+     */
+    private boolean isPropagating = false;
+
+    /**
+     * The nodes waiting to be updated in the current epoch, with one queue per rank.
+     */
+    private ArrayList<ArrayDeque<Node>> scheduledNodes = new ArrayList<>();
+
+    /**
+     * The lowest rank that may have nodes waiting to be updated in the current epoch.
+     */
+    private int nextRank = Integer.MAX_VALUE;
+
+    /**
+     * The number of batches that have been started but not yet committed. While this is greater
+     * than zero, changed parent objects are collected rather than propagated straight away.
+     */
+    private int batchDepth = 0;
+
+    /**
+     * The parent objects that have changed during the current batch, in the order in which they
+     * first changed. Each parent is only held once no matter how many times it changes.
+     */
+    private LinkedHashSet<Updating> dirtyParents = new LinkedHashSet<>();
 
     public Updater()
     {
-        items = new HashMap<>();
+
+    }
+
+    /**
+     * Returns the <code>Updater</code> shared by the objects that hold data.
+     *
+     * @return the shared <code>Updater</code>
+     */
+    public static Updater get()
+    {
+        return instance;
+    }
+
+    /**
+     * Sets the sink that changes are passed to.
+     *
+     * @param sink the <code>UpdateSink</code> that changes are passed to, or <code>null</code> to
+     * update children straight away on the thread that changed their parent
+     */
+    public void setSink(UpdateSink sink)
+    {
+        this.sink = sink;
+    }
+
+    /**
+     * Returns the sink that changes are passed to.
+     *
+     * @return the <code>UpdateSink</code> that changes are passed to, or <code>null</code> if there
+     * is none
+     */
+    public UpdateSink getSink()
+    {
+        return sink;
     }
 
     /**
-     * Adds a new parent object so that other objects can be linked to it.
+     * Adds a new parent object so that other objects can be linked to it. Nothing happens if the
+     * parent object has already been added.
      *
      * @param object a parent object implementing the <code>Updating</code> interface
      */
     public void addParent(Updating object)
     {
-        items.put(object, new ArrayList<Updating>());
+        synchronized(graphLock)
+        {
+            purge();
+            items.putIfAbsent(object, getNode(object));
+        }
     }
 
     /**
      * Adds a child <code>Updating</code> object to a list of objects linked to a parent
      * object. If the parent object is not found then <code>addObject</code> is called with
-     * the parent object passed as an argument.
+     * the parent object passed as an argument. The rank of the child, and of any objects
+     * that depend on it, is raised if necessary so that it stays above the rank of the parent.
      *
      * @param parent a parent object
      * @param child a child object to be added
+     * @throws CycleException if the parent object already depends on the child object
      */
     public void addChild(Updating parent, Updating child)
     {
-        if(!hasParent(parent))
+        synchronized(graphLock)
         {
-            addParent(parent);
+            purge();
+            Node parentNode = getNode(parent);
+            Node childNode = getNode(child);
+            if(parentNode.children.contains(childNode))
+            {
+                return;
+            }
+            if(dependsOn(parentNode, childNode))
+            {
+                throw new CycleException(parent, child);
+            }
+            parentNode.children.add(childNode);
+            childNode.parents.add(parentNode);
+            items.putIfAbsent(parent, parentNode);
+            raiseRank(childNode, parentNode.rank + 1);
         }
-        items.get(parent).add(child);
     }
 
     /**
@@ -69,10 +211,20 @@ public class Updater
      */
     public void removeChild(Updating parent, Updating child)
     {
-        items.get(parent).remove(child);
-        if(items.get(parent).isEmpty())
+        synchronized(graphLock)
         {
-            items.remove(parent);
+            Node parentNode = items.get(parent);
+            Node childNode = nodes.get(child);
+            if(parentNode == null || childNode == null)
+            {
+                return;
+            }
+            parentNode.children.remove(childNode);
+            childNode.parents.remove(parentNode);
+            if(parentNode.children.isEmpty())
+            {
+                items.remove(parent);
+            }
         }
     }
 
@@ -87,27 +239,490 @@ public class Updater
         return items.containsKey(parent);
     }
 
-
+    /**
+     * Updates every object that depends on the given parent object. A new epoch is started and
+     * the dependent objects are updated in rank order, each once for every parent that changed
+     * before it was updated. If this is called while an epoch is in progress, for example by a child
+     * object that changes as a result of being updated, its dependent objects are updated as part
+     * of the current epoch. If a batch is in
+     * progress the parent is only marked as changed and is propagated when the batch is committed.
+     * The change is first offered to the sink, if there is one, which may take it and pass it back
+     * later.
+     *
+     * @param parent the parent object that has changed
+     * @return <code>true</code> if the parent object is found and <code>false</code> if not
+     */
     public boolean update(Updating parent)
     {
-        if(hasParent(parent))
+        purge();
+        Node node = items.get(parent);
+        if(node == null)
+        {
+            return false;
+        }
+        UpdateSink sink = this.sink;
+        if(sink != null && sink.offer(parent))
+        {
+            return true;
+        }
+        synchronized(this)
+        {
+            if(isPropagating)
+            {
+                schedule(node, parent);
+            }
+            else if(batchDepth > 0)
+            {
+                dirtyParents.add(parent);
+            }
+            else
+            {
+                propagate(() -> schedule(node, parent));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts a new epoch, runs the given code and then updates every object that was scheduled by
+     * the code, or by the objects updated, in rank order. <code>refresh()</code> is called once the
+     * epoch has finished. While the code runs <code>isPropagating()</code> returns <code>true</code>,
+     * so objects that are updated directly by the code behave as they would during any other epoch.
+     * A sink can use this to update objects itself as part of an epoch.
+     *
+     * @param updates the code that schedules or updates objects
+     */
+    public synchronized void propagate(Runnable updates)
+    {
+        epoch++;
+        isPropagating = true;
+        try
+        {
+            updates.run();
+            Node node;
+            while((node = nextScheduledNode()) != null)
+            {
+                Updating parent = node.trigger;
+                ArrayList<Updating> otherTriggers = node.otherTriggers;
+                node.trigger = null;
+                node.otherTriggers = null;
+                Updating child = node.get();
+                if(child != null)
+                {
+                    updateChild(parent, child);
+                    if(otherTriggers != null)
+                    {
+                        for(Updating otherParent : otherTriggers)
+                        {
+                            updateChild(otherParent, child);
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            isPropagating = false;
+            if(nextRank != Integer.MAX_VALUE)
+            {
+                for(ArrayDeque<Node> rank : scheduledNodes)
+                {
+                    rank.clear();
+                }
+                nextRank = Integer.MAX_VALUE;
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * Updates a child object that depends on a parent object that has changed, through the sink if
+     * there is one. Subclasses can override this to control how child objects are updated.
+     *
+     * @param parent the parent object that caused the child to be updated
+     * @param child the child object to be updated
+     */
+    protected void updateChild(Updating parent, Updating child)
+    {
+        UpdateSink sink = this.sink;
+        if(sink != null)
+        {
+            sink.updateChild(parent, child);
+        }
+        else
+        {
+            child.update(parent);
+        }
+    }
+
+    /**
+     * Called once each epoch has finished. This passes the end of the epoch on to the sink, if
+     * there is one, and can be overridden by subclasses that need to act on the objects updated
+     * during the epoch.
+     */
+    protected void refresh()
+    {
+        UpdateSink sink = this.sink;
+        if(sink != null)
+        {
+            sink.refresh();
+        }
+    }
+
+    /**
+     * Indicates whether or not an epoch is in progress. Objects that are being updated can use this
+     * to tell a change made by propagation apart from a change made by the user, and so avoid sending
+     * the new value back to the parent.
+     *
+     * @return <code>true</code> if an epoch is in progress and <code>false</code> if not
+     */
+    public synchronized boolean isPropagating()
+    {
+        return isPropagating;
+    }
+
+    /**
+     * Starts a batch of changes. Until the matching call to <code>commitBatch()</code> any parent
+     * objects that change are collected, so that all of them are propagated in a single epoch however
+     * many changes are made. Batches can be nested, in which case only the outermost
+     * <code>commitBatch()</code> propagates the changes.
+     */
+    public synchronized void beginBatch()
+    {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch of changes started by <code>beginBatch()</code>. When the outermost batch is
+     * committed every parent object that changed during the batch is propagated in a single epoch.
+     *
+     * @throws IllegalStateException if there is no batch in progress
+     */
+    public synchronized void commitBatch()
+    {
+        if(batchDepth == 0)
+        {
+            throw new IllegalStateException("commitBatch() called without a matching beginBatch()");
+        }
+        batchDepth--;
+        if(batchDepth == 0 && !dirtyParents.isEmpty())
+        {
+            Updating[] parents = dirtyParents.toArray(new Updating[dirtyParents.size()]);
+            dirtyParents.clear();
+            propagate(() ->
+            {
+                for(Updating parent : parents)
+                {
+                    Node node = items.get(parent);
+                    if(node != null)
+                    {
+                        schedule(node, parent);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the given code as a single batch of changes. This is equivalent to calling
+     * <code>beginBatch()</code>, running the code and then calling <code>commitBatch()</code>.
+     *
+     * @param batch the code that makes the changes
+     */
+    public void runBatched(Runnable batch)
+    {
+        beginBatch();
+        try
+        {
+            batch.run();
+        }
+        finally
+        {
+            commitBatch();
+        }
+    }
+
+    /**
+     * Indicates whether or not a batch of changes is in progress.
+     *
+     * @return <code>true</code> if <code>beginBatch()</code> has been called without a matching
+     * <code>commitBatch()</code> and <code>false</code> if not
+     */
+    public synchronized boolean isBatching()
+    {
+        return batchDepth > 0;
+    }
+
+    /**
+     * Return all of the child objects linked to the given parent object that have not been
+     * garbage collected.
+     *
+     * @return a <code>List</code> containing all of the child objects linked to the given parent object,
+     * or <code>null</code> if the parent object has not been added
+     */
+    public List<Updating> getItems(Updating parent)
+    {
+        Node node = items.get(parent);
+        if(node == null)
+        {
+            return null;
+        }
+        ArrayList<Updating> liveChildren = new ArrayList<>(node.children.size());
+        for(Node childNode : node.children)
+        {
+            Updating child = childNode.get();
+            if(child != null)
+            {
+                liveChildren.add(child);
+            }
+        }
+        return liveChildren;
+    }
+
+    /**
+     * Returns the rank of the given object in the dependency graph. Objects that do not depend on
+     * anything have a rank of 0, and every other object has a higher rank than each of its parents.
+     *
+     * @param object an object that has been linked to this <code>Updater</code>
+     * @return an <code>int</code> indicating the rank of the object, or -1 if it has not been linked
+     */
+    public int getRank(Updating object)
+    {
+        synchronized(graphLock)
+        {
+            Node node = nodes.get(object);
+            return node == null ? -1 : node.rank;
+        }
+    }
+
+    /**
+     * Removes the links to every object that has been garbage collected since the last purge.
+     * Stale links are grouped by parent so that each parent's list is only copied once, and
+     * parents that are left without any children are removed.
+     */
+    public void purge()
+    {
+        Reference<? extends Updating> reference = staleNodes.poll();
+        if(reference == null)
+        {
+            return;
+        }
+        synchronized(graphLock)
         {
-            for(Updating child : items.get(parent))
+            IdentityHashMap<Node, Set<Node>> staleLinks = new IdentityHashMap<>();
+            while(reference != null)
             {
-                child.update(parent);
+                Node staleNode = (Node)reference;
+                for(Node parentNode : staleNode.parents)
+                {
+                    staleLinks.computeIfAbsent(parentNode, key -> Collections.newSetFromMap(new IdentityHashMap<>())).add(staleNode);
+                }
+                for(Node childNode : staleNode.children)
+                {
+                    childNode.parents.remove(staleNode);
+                }
+                staleNode.parents.clear();
+                staleNode.children.clear();
+                reference = staleNodes.poll();
             }
+            for(Node parentNode : staleLinks.keySet())
+            {
+                parentNode.children.removeAll(staleLinks.get(parentNode));
+                Updating parent = parentNode.get();
+                if(parentNode.children.isEmpty() && parent != null)
+                {
+                    items.remove(parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the node of the given object, creating it if necessary. Must be called while holding
+     * <code>graphLock</code>.
+     */
+    private Node getNode(Updating object)
+    {
+        Node node = nodes.get(object);
+        if(node == null)
+        {
+            node = new Node(object, staleNodes);
+            nodes.put(object, node);
+        }
+        return node;
+    }
+
+    /**
+     * Indicates whether or not the first node is the same as, or depends on, the second node. Must
+     * be called while holding <code>graphLock</code>.
+     */
+    private boolean dependsOn(Node node, Node ancestor)
+    {
+        if(node == ancestor)
+        {
             return true;
         }
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(ancestor);
+        while(!stack.isEmpty())
+        {
+            for(Node child : stack.pop().children)
+            {
+                if(child == node)
+                {
+                    return true;
+                }
+                if(visited.add(child))
+                {
+                    stack.push(child);
+                }
+            }
+        }
         return false;
     }
 
     /**
-     * Return all of the child objects linked to the given parent object.
-     *
-     * @return ArrayList<Updating> containing all of the child objects linked to the given parent object.
+     * Raises the rank of the given node to at least the given rank, and the ranks of the nodes
+     * that depend on it so that each stays above its parents. Must be called while holding
+     * <code>graphLock</code>.
+     */
+    private void raiseRank(Node node, int rank)
+    {
+        if(node.rank >= rank)
+        {
+            return;
+        }
+        node.rank = rank;
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while(!stack.isEmpty())
+        {
+            Node parentNode = stack.pop();
+            for(Node child : parentNode.children)
+            {
+                if(child.rank <= parentNode.rank)
+                {
+                    child.rank = parentNode.rank + 1;
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedules the children of the given node to be updated in the current epoch. A child that is
+     * already waiting to be updated in this epoch records the parent as another trigger, unless it
+     * has already recorded it, and a child that has already been updated in this epoch is skipped.
+     */
+    private void schedule(Node node, Updating parent)
+    {
+        for(Node child : node.children)
+        {
+            if(child.epoch == epoch)
+            {
+                if(child.trigger != null && child.trigger != parent)
+                {
+                    if(child.otherTriggers == null)
+                    {
+                        child.otherTriggers = new ArrayList<>(2);
+                    }
+                    if(!containsIdentical(child.otherTriggers, parent))
+                    {
+                        child.otherTriggers.add(parent);
+                    }
+                }
+            }
+            else
+            {
+                child.epoch = epoch;
+                child.trigger = parent;
+                child.otherTriggers = null;
+                int rank = child.rank;
+                while(scheduledNodes.size() <= rank)
+                {
+                    scheduledNodes.add(new ArrayDeque<>());
+                }
+                scheduledNodes.get(rank).add(child);
+                if(rank < nextRank)
+                {
+                    nextRank = rank;
+                }
+            }
+        }
+    }
+
+    private static boolean containsIdentical(List<Updating> objects, Updating object)
+    {
+        for(Updating other : objects)
+        {
+            if(other == object)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the scheduled node with the lowest rank, or <code>null</code> if there are none left.
+     */
+    private Node nextScheduledNode()
+    {
+        while(nextRank < scheduledNodes.size())
+        {
+            Node node = scheduledNodes.get(nextRank).poll();
+            if(node != null)
+            {
+                return node;
+            }
+            nextRank++;
+        }
+        nextRank = Integer.MAX_VALUE;
+        return null;
+    }
+
+    /**
+     * A node in the dependency graph. The node weakly references its object and is added to
+     * <code>staleNodes</code> once the object has been garbage collected.
      */
-    public ArrayList<Updating> getItems(Updating parent)
+    private static class Node extends WeakReference<Updating>
     {
-        return items.get(parent);
+        /**
+         * The nodes of the objects that depend on this node.
+         */
+        private final CopyOnWriteArrayList<Node> children = new CopyOnWriteArrayList<>();
+
+        /**
+         * The nodes of the objects that this node depends on. Guarded by <code>graphLock</code>.
+         */
+        private final ArrayList<Node> parents = new ArrayList<>();
+
+        /**
+         * The rank of this node, which is higher than the rank of each of its parents.
+         */
+        private volatile int rank = 0;
+
+        /**
+         * The last epoch in which this node was scheduled to be updated.
+         */
+        private long epoch = -1;
+
+        /**
+         * The parent object that caused this node to be scheduled in the current epoch, or
+         * <code>null</code> once the node has been updated.
+         */
+        private Updating trigger = null;
+
+        /**
+         * The other parent objects that changed before this node was updated in the current epoch,
+         * in the order in which they changed, or <code>null</code> if there are none.
+         */
+        private ArrayList<Updating> otherTriggers = null;
+
+        private Node(Updating object, ReferenceQueue<Updating> queue)
+        {
+            super(object, queue);
+        }
     }
 }
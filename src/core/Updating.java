@@ -19,26 +19,12 @@ package core;
 public interface Updating
 {
     /**
-     * Updates this object according to the state of the given parent object.
+     * Updates this object according to the state of the given parent object. When several parent
+     * objects change in the same epoch, for example in a batch, this is called once for each of
+     * them, so an object with more than one parent can read just the parent that is passed in.
      *
-     * @return <code>true</code> if the parent object is found and <code>false</code> if
-     * not.
+     * @param parent the parent object that has changed
      */
     void update(Updating parent);
 
-    /**
-     * Indicates whether or not this object has been updated.
-     *
-     * @return <code>true</code> if the object has been updated and <code>false</code> if
-     * not.
-     */
-    boolean hasUpdated();
-
-    /**
-     * Sets the state of the object according to whether or not it has been updated.
-     *
-     * @param hasUpdated <code>true</code> if the object has been updated and <code>false</code>
-     * if not.
-     */
-    void hasUpdated(boolean hasUpdated);
 }
@@ -0,0 +1,199 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Singleton that measures the width of text in a given <code>Font</code>, giving the same result as
+ * <code>FontMetrics.stringWidth</code>. The advances of the ASCII characters are looked up once per
+ * font, so the width of ASCII text is found by adding them up without measuring or creating anything.
+ * The widths of other text are measured by the font metrics and remembered, up to
+ * <code>MEMO_SIZE</code> strings per font.
+ * <p>
+ * Text is measured with the metrics of a component that is not displayed, which are the metrics
+ * used by items when they size themselves as they are created.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class TextMeasurer
+{
+    /**
+     * The number of non-ASCII strings whose widths are remembered for each font.
+     */
+    public static final int MEMO_SIZE = 256;
+
+    private static TextMeasurer instance = new TextMeasurer();
+
+    /**
+     * The component whose font metrics are used to measure text.
+     */
+    private final JLabel measuringLabel = new JLabel();
+
+    /**
+     * The measurements for each font that has been used.
+     */
+    private ConcurrentHashMap<Font, FontWidths> fonts = new ConcurrentHashMap<>();
+
+    private TextMeasurer()
+    {
+
+    }
+
+    /**
+     * Return the instance of this object used to access its methods.
+     *
+     * @return the instance of this object used to access its methods
+     */
+    public static TextMeasurer get()
+    {
+        return instance;
+    }
+
+    /**
+     * Returns the width of the given text when it is displayed in the given font.
+     *
+     * @param font the <code>Font</code> used to display the text
+     * @param text the text to be measured
+     * @return an <code>int</code> indicating the width of the text in pixels
+     */
+    public int getWidth(Font font, String text)
+    {
+        return getFontWidths(font).getWidth(text);
+    }
+
+    /**
+     * Returns the width of part of a <code>char</code> array when it is displayed in the given font.
+     * ASCII text is measured without creating a <code>String</code>.
+     *
+     * @param font the <code>Font</code> used to display the text
+     * @param text an array holding the text to be measured
+     * @param offset the index of the first character to be measured
+     * @param length the number of characters to be measured
+     * @return an <code>int</code> indicating the width of the text in pixels
+     */
+    public int getWidth(Font font, char[] text, int offset, int length)
+    {
+        return getFontWidths(font).getWidth(text, offset, length);
+    }
+
+    /**
+     * Returns the measurements for the given font, creating them the first time the font is used.
+     */
+    private FontWidths getFontWidths(Font font)
+    {
+        FontWidths fontWidths = fonts.get(font);
+        if(fontWidths == null)
+        {
+            fontWidths = fonts.computeIfAbsent(font, key -> new FontWidths(measuringLabel.getFontMetrics(key)));
+        }
+        return fontWidths;
+    }
+
+    /**
+     * The measurements for one font.
+     */
+    private static class FontWidths
+    {
+        private final FontMetrics metrics;
+
+        /**
+         * The advance of each ASCII character, or <code>null</code> if the font has layout attributes
+         * such as kerning, in which case the advances cannot simply be added up.
+         */
+        private final float[] asciiAdvances;
+
+        /**
+         * The widths of non-ASCII strings, from least to most recently used.
+         */
+        private final LinkedHashMap<String, Integer> memo = new LinkedHashMap<String, Integer>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest)
+            {
+                return size() > MEMO_SIZE;
+            }
+        };
+
+        private FontWidths(FontMetrics metrics)
+        {
+            this.metrics = metrics;
+            if(metrics.getFont().hasLayoutAttributes())
+            {
+                asciiAdvances = null;
+            }
+            else
+            {
+                asciiAdvances = new float[128];
+                for(char c = 0; c < 128; c++)
+                {
+                    asciiAdvances[c] = (float)metrics.getStringBounds(String.valueOf(c), null).getWidth();
+                }
+            }
+        }
+
+        private int getWidth(String text)
+        {
+            if(asciiAdvances != null)
+            {
+                float width = 0;
+                int length = text.length();
+                for(int i = 0; i < length; i++)
+                {
+                    char c = text.charAt(i);
+                    if(c >= 128)
+                    {
+                        return getMemoWidth(text);
+                    }
+                    width += asciiAdvances[c];
+                }
+                return (int)(0.5 + width);
+            }
+            return getMemoWidth(text);
+        }
+
+        private int getWidth(char[] text, int offset, int length)
+        {
+            if(asciiAdvances != null)
+            {
+                float width = 0;
+                for(int i = offset; i < offset + length; i++)
+                {
+                    char c = text[i];
+                    if(c >= 128)
+                    {
+                        return getMemoWidth(new String(text, offset, length));
+                    }
+                    width += asciiAdvances[c];
+                }
+                return (int)(0.5 + width);
+            }
+            return getMemoWidth(new String(text, offset, length));
+        }
+
+        private int getMemoWidth(String text)
+        {
+            synchronized(memo)
+            {
+                Integer width = memo.get(text);
+                if(width == null)
+                {
+                    width = metrics.stringWidth(text);
+                    memo.put(text, width);
+                }
+                return width;
+            }
+        }
+    }
+}
@@ -13,9 +13,18 @@ import javax.swing.*;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
+import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Factory class for creating panel borders.
+ * <p>
+ * Borders are shared rather than created for each element. Every element without a title uses the
+ * same <code>NONE</code> or <code>PLAIN</code> border, and titled borders are shared by all elements
+ * with the same style, title and font, up to <code>CACHE_SIZE</code> of the most recently used
+ * titled borders. Because they are shared, borders returned by this class must not be modified.
  *
  * @author Andrew Reilly
  * @version 1.1.0
@@ -43,6 +52,34 @@ public class Borders
      */
     public final static int BOLD_TITLED = 3;
 
+    /**
+     * The number of titled borders that are kept for sharing.
+     */
+    public final static int CACHE_SIZE = 256;
+
+    /**
+     * The border shared by every element with a <code>NONE</code> border.
+     */
+    private final static Border emptyBorder = BorderFactory.createEmptyBorder(3, 3, 3, 3);
+
+    /**
+     * The border shared by every element with a <code>PLAIN</code> border, which is also used as the
+     * outline of titled borders.
+     */
+    private final static Border etchedBorder = BorderFactory.createEtchedBorder(EtchedBorder.RAISED);
+
+    /**
+     * The titled borders kept for sharing, from least to most recently used.
+     */
+    private final static LinkedHashMap<BorderKey, Border> titledBorders = new LinkedHashMap<BorderKey, Border>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BorderKey, Border> eldest)
+        {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     /**
      * Constructor included to prevent an instance of this class being created.
      */
@@ -63,19 +100,74 @@ public class Borders
     {
         if(border == NONE | border > 3)
         {
-            return BorderFactory.createEmptyBorder(3, 3, 3, 3);
+            return emptyBorder;
         }
         else if(border == PLAIN)
         {
-            return BorderFactory.createEtchedBorder(EtchedBorder.RAISED);
+            return etchedBorder;
         }
         else if(border == TITLED)
         {
-            return BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED), title, TitledBorder.LEFT, TitledBorder.DEFAULT_POSITION, Text.BUTTON);
+            return getTitledBorder(border, title, Text.BUTTON);
         }
         else
         {
-            return BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED), title,TitledBorder.LEFT, TitledBorder.DEFAULT_POSITION, Text.TITLE);
+            return getTitledBorder(border, title, Text.TITLE);
+        }
+    }
+
+    /**
+     * Returns the shared titled border with the given style, title and font, creating it if it is not
+     * being kept.
+     */
+    private static Border getTitledBorder(int border, String title, Font font)
+    {
+        BorderKey key = new BorderKey(border, title, font);
+        synchronized(titledBorders)
+        {
+            Border titledBorder = titledBorders.get(key);
+            if(titledBorder == null)
+            {
+                titledBorder = BorderFactory.createTitledBorder(etchedBorder, title, TitledBorder.LEFT, TitledBorder.DEFAULT_POSITION, font);
+                titledBorders.put(key, titledBorder);
+            }
+            return titledBorder;
+        }
+    }
+
+    /**
+     * The style, title and font that identify a shared titled border.
+     */
+    private static final class BorderKey
+    {
+        private final int border;
+
+        private final String title;
+
+        private final Font font;
+
+        private BorderKey(int border, String title, Font font)
+        {
+            this.border = border;
+            this.title = title;
+            this.font = font;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if(!(object instanceof BorderKey))
+            {
+                return false;
+            }
+            BorderKey key = (BorderKey)object;
+            return border == key.border && Objects.equals(title, key.title) && Objects.equals(font, key.font);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (border * 31 + Objects.hashCode(title)) * 31 + Objects.hashCode(font);
         }
     }
 
@@ -0,0 +1,484 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element;
+
+import javax.swing.*;
+import java.awt.*;
+import java.beans.PropertyChangeListener;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A <code>BoxLayout</code> that remembers the size requirements of each component instead of asking
+ * every component for its sizes whenever the container is invalidated. A component is only measured
+ * again when it has been invalidated, has had its minimum, preferred or maximum size set, has been
+ * shown or hidden, or has been added, so the cost of laying out a panel depends on the number of
+ * components that have changed rather than on the number of components. The arrays used to lay out
+ * the components are kept between layouts, and are only replaced when components are added or
+ * removed.
+ * <p>
+ * Components are arranged in exactly the same way as by <code>BoxLayout</code>. As with the sizes,
+ * the alignment of a component is only read again when it is measured, so a component whose
+ * alignment is changed after it has been laid out must be revalidated for the change to be seen.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class CachedBoxLayout extends BoxLayout
+{
+    private static final String[] SIZE_PROPERTIES = {"minimumSize", "preferredSize", "maximumSize"};
+
+    /**
+     * The components that were measured, in the order they were in when they were measured.
+     */
+    private Component[] children = new Component[0];
+
+    /**
+     * Whether each component was visible when it was measured.
+     */
+    private boolean[] isChildVisible = new boolean[0];
+
+    private SizeRequirements[] xChildren = new SizeRequirements[0];
+
+    private SizeRequirements[] yChildren = new SizeRequirements[0];
+
+    private final SizeRequirements xTotal = new SizeRequirements();
+
+    private final SizeRequirements yTotal = new SizeRequirements();
+
+    private int[] xOffsets = new int[0];
+
+    private int[] xSpans = new int[0];
+
+    private int[] yOffsets = new int[0];
+
+    private int[] ySpans = new int[0];
+
+    /**
+     * The axis that components were last arranged along, after the orientation of the container
+     * has been taken into account.
+     */
+    private int absoluteAxis = -1;
+
+    /**
+     * Whether the size requirements of a component have changed since the totals were found.
+     */
+    private boolean isStale = true;
+
+    /**
+     * The components whose minimum, preferred or maximum size has been set since they were last
+     * measured.
+     */
+    private final Set<Component> resizedChildren = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The components that <code>sizeListener</code> has been added to.
+     */
+    private final Set<Component> listenedChildren = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final PropertyChangeListener sizeListener = event ->
+    {
+        Component component = (Component)event.getSource();
+        synchronized(this)
+        {
+            if(component.getParent() == getTarget() && getTarget().getLayout() == this)
+            {
+                resizedChildren.add(component);
+            }
+            else
+            {
+                unlisten(component);
+            }
+        }
+    };
+
+    /**
+     * Creates a layout that arranges the components of the given container along the given axis.
+     *
+     * @param target the container that is laid out
+     * @param axis one of <code>BoxLayout.X_AXIS</code>, <code>BoxLayout.Y_AXIS</code>,
+     * <code>BoxLayout.LINE_AXIS</code> or <code>BoxLayout.PAGE_AXIS</code>
+     */
+    public CachedBoxLayout(Container target, int axis)
+    {
+        super(target, axis);
+    }
+
+    /**
+     * Overrides the <code>BoxLayout</code> method. Components that have changed are found when the
+     * container is next laid out, so nothing needs to be forgotten here.
+     *
+     * @param target the container that has been invalidated
+     */
+    @Override
+    public synchronized void invalidateLayout(Container target)
+    {
+        checkContainer(target);
+    }
+
+    @Override
+    public synchronized void addLayoutComponent(Component component, Object constraints)
+    {
+        listen(component);
+    }
+
+    @Override
+    public synchronized void removeLayoutComponent(Component component)
+    {
+        unlisten(component);
+    }
+
+    @Override
+    public synchronized Dimension preferredLayoutSize(Container target)
+    {
+        checkContainer(target);
+        refresh();
+        return getLayoutSize(target, xTotal.preferred, yTotal.preferred);
+    }
+
+    @Override
+    public synchronized Dimension minimumLayoutSize(Container target)
+    {
+        checkContainer(target);
+        refresh();
+        return getLayoutSize(target, xTotal.minimum, yTotal.minimum);
+    }
+
+    @Override
+    public synchronized Dimension maximumLayoutSize(Container target)
+    {
+        checkContainer(target);
+        refresh();
+        return getLayoutSize(target, xTotal.maximum, yTotal.maximum);
+    }
+
+    @Override
+    public synchronized float getLayoutAlignmentX(Container target)
+    {
+        checkContainer(target);
+        refresh();
+        return xTotal.alignment;
+    }
+
+    @Override
+    public synchronized float getLayoutAlignmentY(Container target)
+    {
+        checkContainer(target);
+        refresh();
+        return yTotal.alignment;
+    }
+
+    @Override
+    public void layoutContainer(Container target)
+    {
+        checkContainer(target);
+        int count = target.getComponentCount();
+        Dimension allocation = target.getSize();
+        Insets insets = target.getInsets();
+        allocation.width -= insets.left + insets.right;
+        allocation.height -= insets.top + insets.bottom;
+        ComponentOrientation orientation = target.getComponentOrientation();
+        boolean isLeftToRight = resolveAxis(orientation) != getAxis() ? orientation.isLeftToRight() : true;
+        synchronized(this)
+        {
+            refresh();
+            if(absoluteAxis == X_AXIS)
+            {
+                SizeRequirements.calculateTiledPositions(allocation.width, xTotal, xChildren, xOffsets, xSpans, isLeftToRight);
+                SizeRequirements.calculateAlignedPositions(allocation.height, yTotal, yChildren, yOffsets, ySpans);
+            }
+            else
+            {
+                SizeRequirements.calculateAlignedPositions(allocation.width, xTotal, xChildren, xOffsets, xSpans, isLeftToRight);
+                SizeRequirements.calculateTiledPositions(allocation.height, yTotal, yChildren, yOffsets, ySpans);
+            }
+            for(int i = 0; i < count; i++)
+            {
+                Component component = children[i];
+                int x = (int)Math.min((long)insets.left + (long)xOffsets[i], Integer.MAX_VALUE);
+                int y = (int)Math.min((long)insets.top + (long)yOffsets[i], Integer.MAX_VALUE);
+                if(x != component.getX() || y != component.getY()
+                    || xSpans[i] != component.getWidth() || ySpans[i] != component.getHeight())
+                {
+                    component.setBounds(x, y, xSpans[i], ySpans[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the size the container's components would take up if each of them was given its
+     * preferred size, with no space between them, using the remembered sizes of the components.
+     * Components that are not visible take up no space.
+     *
+     * @return a <code>Dimension</code> whose size along the axis of this layout is the sum of the
+     * preferred sizes of the components and whose other size is the largest of them
+     */
+    public synchronized Dimension getPreferredChildrenSize()
+    {
+        refresh();
+        int width = 0;
+        int height = 0;
+        for(int i = 0; i < children.length; i++)
+        {
+            if(absoluteAxis == X_AXIS)
+            {
+                width += xChildren[i].preferred;
+                height = Math.max(height, yChildren[i].preferred);
+            }
+            else
+            {
+                width = Math.max(width, xChildren[i].preferred);
+                height += yChildren[i].preferred;
+            }
+        }
+        return new Dimension(width, height);
+    }
+
+    /**
+     * Measures the components that have changed since they were last measured, and finds the
+     * total size requirements again if any of them have.
+     */
+    private void refresh()
+    {
+        Container target = getTarget();
+        int count = target.getComponentCount();
+        if(count != children.length)
+        {
+            resizeArrays(count);
+        }
+        int axis = resolveAxis(target.getComponentOrientation());
+        if(axis != absoluteAxis)
+        {
+            absoluteAxis = axis;
+            isStale = true;
+        }
+        boolean hasResizedChildren = !resizedChildren.isEmpty();
+        for(int i = 0; i < count; i++)
+        {
+            Component component = target.getComponent(i);
+            if(component != children[i])
+            {
+                children[i] = component;
+                listen(component);
+                measure(i, component);
+            }
+            else if(component.isVisible() != isChildVisible[i] || !component.isValid()
+                || (hasResizedChildren && resizedChildren.contains(component)))
+            {
+                measure(i, component);
+            }
+        }
+        resizedChildren.clear();
+        if(isStale)
+        {
+            if(absoluteAxis == X_AXIS)
+            {
+                setTiledTotal(xTotal, xChildren);
+                setAlignedTotal(yTotal, yChildren);
+            }
+            else
+            {
+                setAlignedTotal(xTotal, xChildren);
+                setTiledTotal(yTotal, yChildren);
+            }
+            isStale = false;
+        }
+    }
+
+    /**
+     * Changes the number of components remembered, keeping the measurements of the components
+     * whose positions are still in range.
+     */
+    private void resizeArrays(int count)
+    {
+        int kept = Math.min(count, children.length);
+        Component[] nextChildren = new Component[count];
+        boolean[] nextIsChildVisible = new boolean[count];
+        SizeRequirements[] nextXChildren = new SizeRequirements[count];
+        SizeRequirements[] nextYChildren = new SizeRequirements[count];
+        System.arraycopy(children, 0, nextChildren, 0, kept);
+        System.arraycopy(isChildVisible, 0, nextIsChildVisible, 0, kept);
+        System.arraycopy(xChildren, 0, nextXChildren, 0, kept);
+        System.arraycopy(yChildren, 0, nextYChildren, 0, kept);
+        for(int i = kept; i < count; i++)
+        {
+            nextXChildren[i] = new SizeRequirements();
+            nextYChildren[i] = new SizeRequirements();
+        }
+        children = nextChildren;
+        isChildVisible = nextIsChildVisible;
+        xChildren = nextXChildren;
+        yChildren = nextYChildren;
+        xOffsets = new int[count];
+        xSpans = new int[count];
+        yOffsets = new int[count];
+        ySpans = new int[count];
+        isStale = true;
+    }
+
+    /**
+     * Asks the component at the given index for its sizes.
+     */
+    private void measure(int index, Component component)
+    {
+        boolean isVisible = component.isVisible();
+        isChildVisible[index] = isVisible;
+        if(isVisible)
+        {
+            Dimension minimum = component.getMinimumSize();
+            Dimension preferred = component.getPreferredSize();
+            Dimension maximum = component.getMaximumSize();
+            setRequirements(xChildren[index], minimum.width, preferred.width, maximum.width, component.getAlignmentX());
+            setRequirements(yChildren[index], minimum.height, preferred.height, maximum.height, component.getAlignmentY());
+        }
+        else
+        {
+            setRequirements(xChildren[index], 0, 0, 0, component.getAlignmentX());
+            setRequirements(yChildren[index], 0, 0, 0, component.getAlignmentY());
+        }
+    }
+
+    private void setRequirements(SizeRequirements requirements, int minimum, int preferred, int maximum, float alignment)
+    {
+        if(requirements.minimum != minimum || requirements.preferred != preferred || requirements.maximum != maximum)
+        {
+            requirements.minimum = minimum;
+            requirements.preferred = preferred;
+            requirements.maximum = maximum;
+            isStale = true;
+        }
+        setAlignment(requirements, alignment);
+    }
+
+    private void setAlignment(SizeRequirements requirements, float alignment)
+    {
+        if(requirements.alignment != alignment)
+        {
+            requirements.alignment = alignment;
+            isStale = true;
+        }
+    }
+
+    /**
+     * Finds the total size requirements of components placed end to end, in the same way as
+     * <code>SizeRequirements.getTiledSizeRequirements</code>.
+     */
+    private static void setTiledTotal(SizeRequirements total, SizeRequirements[] children)
+    {
+        long minimum = 0;
+        long preferred = 0;
+        long maximum = 0;
+        for(SizeRequirements child : children)
+        {
+            minimum = Math.min(minimum + child.minimum, Integer.MAX_VALUE);
+            preferred = Math.min(preferred + child.preferred, Integer.MAX_VALUE);
+            maximum = Math.min(maximum + child.maximum, Integer.MAX_VALUE);
+        }
+        total.minimum = (int)minimum;
+        total.preferred = (int)preferred;
+        total.maximum = (int)maximum;
+        total.alignment = 0.5f;
+    }
+
+    /**
+     * Finds the total size requirements of components aligned with each other, in the same way as
+     * <code>SizeRequirements.getAlignedSizeRequirements</code>.
+     */
+    private static void setAlignedTotal(SizeRequirements total, SizeRequirements[] children)
+    {
+        int minimumAscent = 0;
+        int minimumDescent = 0;
+        int preferredAscent = 0;
+        int preferredDescent = 0;
+        int maximumAscent = 0;
+        int maximumDescent = 0;
+        for(SizeRequirements child : children)
+        {
+            int ascent = (int)(child.alignment * child.minimum);
+            minimumAscent = Math.max(ascent, minimumAscent);
+            minimumDescent = Math.max(child.minimum - ascent, minimumDescent);
+            ascent = (int)(child.alignment * child.preferred);
+            preferredAscent = Math.max(ascent, preferredAscent);
+            preferredDescent = Math.max(child.preferred - ascent, preferredDescent);
+            ascent = (int)(child.alignment * child.maximum);
+            maximumAscent = Math.max(ascent, maximumAscent);
+            maximumDescent = Math.max(child.maximum - ascent, maximumDescent);
+        }
+        total.minimum = (int)Math.min((long)minimumAscent + (long)minimumDescent, Integer.MAX_VALUE);
+        total.preferred = (int)Math.min((long)preferredAscent + (long)preferredDescent, Integer.MAX_VALUE);
+        total.maximum = (int)Math.min((long)maximumAscent + (long)maximumDescent, Integer.MAX_VALUE);
+        float alignment = 0.0f;
+        if(total.minimum > 0)
+        {
+            alignment = (float)minimumAscent / total.minimum;
+            alignment = alignment > 1.0f ? 1.0f : alignment < 0.0f ? 0.0f : alignment;
+        }
+        total.alignment = alignment;
+    }
+
+    /**
+     * Adds the insets of the container to the given size.
+     */
+    private static Dimension getLayoutSize(Container target, int width, int height)
+    {
+        Insets insets = target.getInsets();
+        return new Dimension((int)Math.min((long)width + (long)insets.left + (long)insets.right, Integer.MAX_VALUE),
+            (int)Math.min((long)height + (long)insets.top + (long)insets.bottom, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the axis that components are arranged along once the orientation of the container
+     * has been taken into account, in the same way as <code>BoxLayout</code>.
+     */
+    private int resolveAxis(ComponentOrientation orientation)
+    {
+        switch(getAxis())
+        {
+            case LINE_AXIS:
+                return orientation.isHorizontal() ? X_AXIS : Y_AXIS;
+            case PAGE_AXIS:
+                return orientation.isHorizontal() ? Y_AXIS : X_AXIS;
+            default:
+                return getAxis();
+        }
+    }
+
+    private void listen(Component component)
+    {
+        if(listenedChildren.add(component))
+        {
+            for(String property : SIZE_PROPERTIES)
+            {
+                component.addPropertyChangeListener(property, sizeListener);
+            }
+        }
+    }
+
+    private void unlisten(Component component)
+    {
+        if(listenedChildren.remove(component))
+        {
+            for(String property : SIZE_PROPERTIES)
+            {
+                component.removePropertyChangeListener(property, sizeListener);
+            }
+        }
+        resizedChildren.remove(component);
+    }
+
+    private void checkContainer(Container target)
+    {
+        if(target != getTarget())
+        {
+            throw new AWTError("BoxLayout can't be shared");
+        }
+    }
+}
@@ -122,7 +122,7 @@ public class Element extends Panel
      */
     public void setElementBorder(int border, String title)
     {
-        Borders.getBorder(border, title);
+        setBorder(Borders.getBorder(border, title));
     }
 
     /**
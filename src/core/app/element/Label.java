@@ -9,6 +9,7 @@
 package core.app.element;
 
 import core.app.Text;
+import core.app.TextMeasurer;
 import javax.swing.*;
 import java.awt.*;
 
@@ -26,6 +27,12 @@ public class Label extends Item<JLabel>
      */
     private static Font defaultFont = Text.BUTTON;
 
+    /**
+     * The width of the text displayed by this <code>Label</code>, used to avoid resizing it when
+     * new text has the same width.
+     */
+    private int textWidth = -1;
+
     /**
      * Creates a <code>Label</code> with the specified text.
      */
@@ -33,7 +40,7 @@ public class Label extends Item<JLabel>
     {
         JLabel label = new JLabel(text);
         label.setFont(defaultFont);
-        int textWidth = getFontMetrics(label.getFont()).stringWidth(text);
+        textWidth = TextMeasurer.get().getWidth(label.getFont(), text);
         setComponent(label);
         setSize(textWidth, componentHeight);
     }
@@ -48,7 +55,7 @@ public class Label extends Item<JLabel>
     {
         JLabel label = new JLabel(text.getText());
         label.setFont(text.getFont());
-        int textWidth = getFontMetrics(label.getFont()).stringWidth(text.getText());
+        textWidth = TextMeasurer.get().getWidth(label.getFont(), text.getText());
         setComponent(label);
         setSize(textWidth, componentHeight);
     }
@@ -65,14 +72,19 @@ public class Label extends Item<JLabel>
     }
 
     /**
-     * Sets the the text displayed by this <code>Label</code>.
+     * Sets the the text displayed by this <code>Label</code>. The <code>Label</code> is only resized
+     * if the width of the text has changed.
      *
      * @param text a <code>String</code> displayed by this <code>Label</code>
      */
     public void setText(String text)
     {
-        int textWidth = getFontMetrics(getComponent().getFont()).stringWidth(text);
-        setSize(textWidth, componentHeight);
+        int width = TextMeasurer.get().getWidth(getComponent().getFont(), text);
+        if(width != textWidth)
+        {
+            textWidth = width;
+            setSize(width, componentHeight);
+        }
         getComponent().setText(text);
     }
 
@@ -115,7 +127,7 @@ public class Label extends Item<JLabel>
     {
         JLabel returnedLabel = new JLabel(text.getText());
         returnedLabel.setFont(text.getFont());
-        int textWidth = returnedLabel.getFontMetrics(text.getFont()).stringWidth(text.getText());
+        int textWidth = TextMeasurer.get().getWidth(text.getFont(), text.getText());
         returnedLabel.setSize(new Dimension(textWidth, componentHeight));
         return returnedLabel;
     }
@@ -13,14 +13,14 @@ import tests.P;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumMap;
 
 /**
  * An object used to organise the position of <code>Element</code>s in a window. As the
  * <code>Layouter</code> inherits <code>Element</code>, multiple <code>Layouter</code>s
  * can be nested within each other. Elements are attached to <code>Panel</code>s that are
- * arranged using a <code>BorderLayout</code>.
+ * arranged using a <code>BorderLayout</code>. The panel at each location is only created when it is
+ * first used, so a nested <code>Layouter</code> that only uses its centre holds a single panel.
  *
  * @author Andrew Reilly
  * @version 1.1.0
@@ -29,9 +29,10 @@ public class Layouter extends Element
 {
 
     /**
-     * A <code>HashMap</code> that is used to store <code>Panel</code>s using a <code>Layout</code>s value as a key.
+     * An <code>EnumMap</code> that is used to store <code>Panel</code>s using a <code>Layout</code>s
+     * value as a key. Panels are only created when a location is first used.
      */
-    private HashMap<Layouts, Panel> panels;
+    private EnumMap<Layouts, Panel> panels = new EnumMap<>(Layouts.class);
 
     /**
      * Constructor for a default layout with a <code>BorderLayout</code> and no attached <code>Element</code>s
@@ -39,16 +40,6 @@ public class Layouter extends Element
     public Layouter()
     {
         setLayout(new BorderLayout());
-        panels = new HashMap<>();
-        Layouts[] locations = {Layouts.CENTRE, Layouts.TOP, Layouts.RIGHT, Layouts.BOTTOM, Layouts.LEFT};
-        String[] borders = {BorderLayout.CENTER, BorderLayout.NORTH, BorderLayout.EAST, BorderLayout.SOUTH, BorderLayout.WEST};
-        Panel panel;
-        for(int i = 0; i < 5; i++)
-        {
-            panel = new Panel();
-            panels.put(locations[i], panel);
-            add(panel, borders[i]);
-        }
     }
 
     /**
@@ -58,7 +49,7 @@ public class Layouter extends Element
      */
     public Panel getTop()
     {
-        return panels.get(Layouts.TOP);
+        return getPanel(Layouts.TOP);
     }
 
     /**
@@ -68,7 +59,7 @@ public class Layouter extends Element
      */
     public Panel getBottom()
     {
-        return panels.get(Layouts.BOTTOM);
+        return getPanel(Layouts.BOTTOM);
     }
 
     /**
@@ -78,7 +69,7 @@ public class Layouter extends Element
      */
     public Panel getLeft()
     {
-        return panels.get(Layouts.LEFT);
+        return getPanel(Layouts.LEFT);
     }
 
     /**
@@ -88,7 +79,7 @@ public class Layouter extends Element
      */
     public Panel getRight()
     {
-        return panels.get(Layouts.RIGHT);
+        return getPanel(Layouts.RIGHT);
     }
 
     /**
@@ -98,7 +89,7 @@ public class Layouter extends Element
      */
     public Panel getCentre()
     {
-        return panels.get(Layouts.CENTRE);
+        return getPanel(Layouts.CENTRE);
     }
 
     /**
@@ -109,7 +100,7 @@ public class Layouter extends Element
     public void add(JComponent component)
     {
         setComponentAlignment(Layouts.CENTRE, component);
-        panels.get(Layouts.CENTRE).add(component);
+        getPanel(Layouts.CENTRE).add(component);
     }
 
 
@@ -122,7 +113,7 @@ public class Layouter extends Element
     public void add(JComponent component, Layouts location)
     {
         setComponentAlignment(location, component);
-        panels.get(location).add(component);
+        getPanel(location).add(component);
     }
 
 
@@ -135,7 +126,7 @@ public class Layouter extends Element
     public void add(JComponent component, int index)
     {
         setComponentAlignment(Layouts.CENTRE, component);
-        panels.get(Layouts.CENTRE).add(component, index);
+        getPanel(Layouts.CENTRE).add(component, index);
     }
 
 
@@ -150,7 +141,7 @@ public class Layouter extends Element
     public void add(JComponent component, Layouts location, int index)
     {
         setComponentAlignment(location, component);
-        panels.get(location).add(component, index);
+        getPanel(location).add(component, index);
     }
 
 
@@ -164,7 +155,7 @@ public class Layouter extends Element
     public void add(Element element)
     {
         setElementAlignment(Layouts.CENTRE, element);
-        panels.get(Layouts.CENTRE).add(element);
+        getPanel(Layouts.CENTRE).add(element);
     }
 
 
@@ -179,7 +170,7 @@ public class Layouter extends Element
     public void add(Element element, Layouts location)
     {
         setElementAlignment(location, element);
-        panels.get(location).add(element);
+        getPanel(location).add(element);
     }
 
 
@@ -192,7 +183,7 @@ public class Layouter extends Element
     public void add(Element element, int index)
     {
         setElementAlignment(Layouts.CENTRE, element);
-        panels.get(Layouts.CENTRE).add(element, index);
+        getPanel(Layouts.CENTRE).add(element, index);
     }
 
 
@@ -207,32 +198,79 @@ public class Layouter extends Element
     public void add(Element element, Layouts location, int index)
     {
         setElementAlignment(location, element);
-        panels.get(location).add(element, index);
+        getPanel(location).add(element, index);
     }
 
 
     /**
      * Returns the <code>JComponent</code> at the specified location and index from this <code>Layouter</code>.
      *
-     * @param location a <code>String</code> constant denoting the location of the component to be returned
+     * @param location a <code>Layouts</code> constant denoting the location of the component to be returned
      * @param index an <code>int</code> denoting the index of the of the component to be returned
      * @return the <code>JComponent</code> at the specified location and index
      */
-    public JComponent getComponent(String location, int index)
+    public JComponent getComponent(Layouts location, int index)
     {
-        return (JComponent)panels.get(location).getComponent(index);
+        return (JComponent)getPanel(location).getComponent(index);
     }
 
 
     /**
-     * Returns the <code>Panel</code> at the specified location.
+     * Returns the <code>Panel</code> at the specified location, creating it if it has not been
+     * used before.
      *
-     * @param location a <code>String</code> constant denoting the location of the <code>Panel</code> to be returned
+     * @param location a <code>Layouts</code> constant denoting the location of the <code>Panel</code> to be returned
      * @return the <code>Panel</code> at the specified location
+     * @throws IllegalArgumentException if the location is not one of <code>CENTRE</code>,
+     * <code>TOP</code>, <code>RIGHT</code>, <code>BOTTOM</code> or <code>LEFT</code>
      */
     public Panel getPanel(Layouts location)
     {
-        return panels.get(location);
+        Panel panel = panels.get(location);
+        if(panel == null)
+        {
+            String border = getBorderLocation(location);
+            panel = new Panel();
+            panels.put(location, panel);
+            add(panel, border);
+            update();
+        }
+        return panel;
+    }
+
+
+    /**
+     * Returns whether the <code>Panel</code> at the specified location has been created.
+     *
+     * @param location a <code>Layouts</code> constant denoting the location of the <code>Panel</code>
+     * @return <code>true</code> if the panel has been created and <code>false</code> if not
+     */
+    public boolean hasPanel(Layouts location)
+    {
+        return panels.containsKey(location);
+    }
+
+
+    /**
+     * Returns the <code>BorderLayout</code> constraint used for the given location.
+     */
+    private static String getBorderLocation(Layouts location)
+    {
+        switch(location)
+        {
+            case CENTRE:
+                return BorderLayout.CENTER;
+            case TOP:
+                return BorderLayout.NORTH;
+            case RIGHT:
+                return BorderLayout.EAST;
+            case BOTTOM:
+                return BorderLayout.SOUTH;
+            case LEFT:
+                return BorderLayout.WEST;
+            default:
+                throw new IllegalArgumentException("A Layouter has no panel at " + location);
+        }
     }
 
 
@@ -241,9 +279,8 @@ public class Layouter extends Element
      */
     public void removeAllElements()
     {
-        for(Map.Entry entry : panels.entrySet())
+        for(Panel panel : panels.values())
         {
-            Panel panel = (Panel)entry.getValue();
             panel.removeAll();
         }
     }
@@ -263,29 +300,30 @@ public class Layouter extends Element
     /**
      * Removes a <code>JComponent</code> from the specified location and index of this <code>Layouter</code>.
      *
-     * @param location a <code>String</code> constant denoting the location of the component to be
+     * @param location a <code>Layouts</code> constant denoting the location of the component to be
      * removed
      * @param index an <code>int</code> denoting the index of the of the component to be removed
      */
-    public void removeComponent(String location, int index)
+    public void removeComponent(Layouts location, int index)
     {
-        panels.get(location).remove(index);
+        getPanel(location).remove(index);
     }
 
 
     /**
      * Sets the horizontal and vertical alignment of the <code>Panel</code> at the specified location.
      *
-     * @param location a <code>String</code> constant denoting the location of the component to be returned
+     * @param location a <code>Layouts</code> constant denoting the location of the panel
      * @param alignmentX a <code>double</code> specifying the horizontal alignment of the panel at
      * the given location
      * @param alignmentY a <code>double</code> specifying the vertical alignment of the panel at
      * the given location
      */
-    public void setAlignment(String location, float alignmentX, float alignmentY)
+    public void setAlignment(Layouts location, float alignmentX, float alignmentY)
     {
-        panels.get(location).setAlignmentX(alignmentX);
-        panels.get(location).setAlignmentY(alignmentY);
+        Panel panel = getPanel(location);
+        panel.setAlignmentX(alignmentX);
+        panel.setAlignmentY(alignmentY);
     }
 
 
@@ -302,8 +340,7 @@ public class Layouter extends Element
      */
     public void setAlignment(float alignmentX, float alignmentY)
     {
-        panels.get(Layouts.CENTRE).setAlignmentX(alignmentX);
-        panels.get(Layouts.CENTRE).setAlignmentY(alignmentY);
+        setAlignment(Layouts.CENTRE, alignmentX, alignmentY);
     }
 
     /**
@@ -315,8 +352,9 @@ public class Layouter extends Element
      */
     public void setElementAlignment(Layouts location, Element element)
     {
-        element.setAlignmentX(panels.get(location).getLayouts().getX());
-        element.setAlignmentY(panels.get(location).getLayouts().getY());
+        AbstractLayout layouts = getPanel(location).getLayouts();
+        element.setAlignmentX(layouts.getX());
+        element.setAlignmentY(layouts.getY());
     }
 
 
@@ -329,8 +367,9 @@ public class Layouter extends Element
      */
     public void setComponentAlignment(Layouts location, JComponent component)
     {
-        component.setAlignmentX(panels.get(location).getAlignmentX());
-        component.setAlignmentY(panels.get(location).getAlignmentY());
+        Panel panel = getPanel(location);
+        component.setAlignmentX(panel.getAlignmentX());
+        component.setAlignmentY(panel.getAlignmentY());
     }
 
 
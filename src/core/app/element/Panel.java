@@ -12,12 +12,22 @@ import core.Utils;
 import tests.P;
 
 import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 
 /**
  * This class provides the basic building block of GUI elements. It extends
- * <code>JPanel</code> with a <code>BoxLayout</code> with a default horizontal
+ * <code>JPanel</code> with a <code>CachedBoxLayout</code> with a default horizontal
  * layout, with can be changed.
+ * <p>
+ * Panels that are created between <code>beginDeferral()</code> and <code>endDeferral()</code>, or
+ * inside <code>buildDeferred</code>, do not revalidate or repaint themselves when they are updated.
+ * Instead, the update is remembered and the whole subtree is revalidated once, when its topmost
+ * panel is attached to a displayed window, so that building a large form does not cause a layout
+ * request for every element that is added.
  *
  * @author Andrew Reilly
  * @version 1.1.0
@@ -31,6 +41,18 @@ public class Panel extends JPanel
      */
     private Panel panel = null;
 
+    /**
+     * The deferral state of each thread that creates panels.
+     */
+    private static final ThreadLocal<Deferral> deferral = ThreadLocal.withInitial(Deferral::new);
+
+    /**
+     * Whether this panel has been updated while updates were deferred and has not yet been
+     * revalidated. This has no initializer, because the <code>JPanel</code> constructor revalidates
+     * the panel when it sets its UI, which may already have set it and listed the panel as deferred.
+     */
+    private boolean isUpdateDeferred;
+
     /**
      * Creates a panel with a centred layout.
      */
@@ -81,23 +103,222 @@ public class Panel extends JPanel
     {
         this.layouts = layouts;
         setComponentOrientation(layouts.getComponentOrientation());
-        setLayout(new BoxLayout(this, layouts.getAxis()));
+        setLayout(new CachedBoxLayout(this, layouts.getAxis()));
     }
 
     /**
-     * Revalidates and repaints the panel.
+     * Revalidates and repaints the panel. If updates are being deferred then the panel is
+     * revalidated when it is attached to a displayed window, or when the deferral ends if it
+     * already is.
      */
     public final void update()
     {
-        revalidate();
+        if(defer())
+        {
+            return;
+        }
+        isUpdateDeferred = false;
+        super.revalidate();
         repaint();
     }
 
     /**
-     * Removes any space between the JComponents contained in this <code>Panel</code> .
+     * Overrides the <code>JComponent</code> method so that changes such as setting a border,
+     * which revalidate the panel, are deferred in the same way as <code>update()</code>.
+     */
+    @Override
+    public void revalidate()
+    {
+        if(defer())
+        {
+            return;
+        }
+        super.revalidate();
+    }
+
+    /**
+     * Remembers that this panel has been updated if updates are being deferred.
+     *
+     * @return <code>true</code> if the update has been deferred and <code>false</code> if it
+     * should be made now
+     */
+    private boolean defer()
+    {
+        Deferral state = deferral.get();
+        if(state.depth == 0)
+        {
+            return false;
+        }
+        if(!isUpdateDeferred)
+        {
+            isUpdateDeferred = true;
+            state.panels.add(this);
+        }
+        return true;
+    }
+
+    /**
+     * Defers the updates of panels created or changed by the current thread until
+     * <code>endDeferral()</code> is called. Deferrals can be nested, in which case updates are
+     * deferred until the outermost deferral ends.
+     */
+    public static void beginDeferral()
+    {
+        deferral.get().depth++;
+    }
+
+    /**
+     * Ends a deferral started by <code>beginDeferral()</code>. When the outermost deferral ends,
+     * the deferred panels that are already attached to a displayed window are revalidated, and the
+     * others are revalidated when they are attached.
+     *
+     * @throws IllegalStateException if no deferral has been started by the current thread
+     */
+    public static void endDeferral()
+    {
+        Deferral state = deferral.get();
+        if(state.depth == 0)
+        {
+            throw new IllegalStateException("No deferral has been started");
+        }
+        if(--state.depth > 0)
+        {
+            return;
+        }
+        ArrayList<Panel> panels = state.panels;
+        state.panels = new ArrayList<>();
+        ArrayList<Panel> roots = new ArrayList<>();
+        for(Panel panel : panels)
+        {
+            if(panel.isDisplayable() && !panel.hasDeferredAncestor())
+            {
+                roots.add(panel);
+            }
+        }
+        for(Panel panel : panels)
+        {
+            if(panel.isDisplayable())
+            {
+                panel.isUpdateDeferred = false;
+            }
+        }
+        for(Panel root : roots)
+        {
+            root.update();
+        }
+    }
+
+    /**
+     * Creates a subtree of panels with their updates deferred, so that it is laid out once when it
+     * is attached to a displayed window.
+     *
+     * @param builder a <code>Supplier</code> that creates and returns the subtree
+     * @param <T> the type of the object returned by the builder
+     * @return the object returned by the builder
+     */
+    public static <T> T buildDeferred(Supplier<T> builder)
+    {
+        beginDeferral();
+        try
+        {
+            return builder.get();
+        }
+        finally
+        {
+            endDeferral();
+        }
+    }
+
+    /**
+     * Returns whether the updates of panels are being deferred by the current thread.
+     *
+     * @return <code>true</code> if updates are being deferred and <code>false</code> if not
+     */
+    public static boolean isDeferring()
+    {
+        return deferral.get().depth > 0;
+    }
+
+    /**
+     * Returns the panels whose updates have been deferred by the current thread during the current
+     * deferral, in the order in which they were first updated.
+     *
+     * @return a copy of the list of deferred panels
+     */
+    static List<Panel> getDeferredPanels()
+    {
+        return new ArrayList<>(deferral.get().panels);
+    }
+
+    /**
+     * Returns whether a panel containing this panel has a deferred update, in which case
+     * revalidating that panel revalidates this one as well.
+     */
+    private boolean hasDeferredAncestor()
+    {
+        for(Container parent = getParent(); parent != null; parent = parent.getParent())
+        {
+            if(parent instanceof Panel && ((Panel)parent).isUpdateDeferred)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Overrides the <code>JComponent</code> method to revalidate a subtree whose updates were
+     * deferred when it is attached to a displayed window. Only the topmost panel being attached
+     * is revalidated, on behalf of all the deferred panels beneath it.
+     */
+    @Override
+    public void addNotify()
+    {
+        Deferral state = deferral.get();
+        if(state.depth > 0)
+        {
+            super.addNotify();
+            return;
+        }
+        if(state.isRealizing)
+        {
+            super.addNotify();
+            state.hasDeferredUpdates |= isUpdateDeferred;
+            isUpdateDeferred = false;
+            return;
+        }
+        state.isRealizing = true;
+        state.hasDeferredUpdates = isUpdateDeferred;
+        isUpdateDeferred = false;
+        try
+        {
+            super.addNotify();
+        }
+        finally
+        {
+            state.isRealizing = false;
+        }
+        if(state.hasDeferredUpdates)
+        {
+            state.hasDeferredUpdates = false;
+            update();
+        }
+    }
+
+    /**
+     * Removes any space between the JComponents contained in this <code>Panel</code> . The sizes
+     * remembered by the panel's layout are used, so only components that have changed since the
+     * panel was last laid out or collapsed are asked for their preferred sizes.
      */
     public final void collapse()
     {
+        LayoutManager layout = getLayout();
+        if(layout instanceof CachedBoxLayout)
+        {
+            Dimension size = ((CachedBoxLayout)layout).getPreferredChildrenSize();
+            Utils.setComponentSize(this, size.width, size.height);
+            return;
+        }
         int itemWidth = 0;
         int itemHeight = 0;
         for(int i = 0; i < getComponentCount(); i++)
@@ -192,4 +413,30 @@ public class Panel extends JPanel
     {
         setLayouts(new LineLayout(Layouts.CENTRE, Layouts.CENTRE));
     }
+
+    /**
+     * The deferral state of a thread.
+     */
+    private static class Deferral
+    {
+        /**
+         * The number of deferrals that have been started and not yet ended.
+         */
+        private int depth = 0;
+
+        /**
+         * The panels whose updates have been deferred during the current deferral.
+         */
+        private ArrayList<Panel> panels = new ArrayList<>();
+
+        /**
+         * Whether a subtree is being attached to a displayed window.
+         */
+        private boolean isRealizing = false;
+
+        /**
+         * Whether a panel in the subtree being attached has a deferred update.
+         */
+        private boolean hasDeferredUpdates = false;
+    }
 }
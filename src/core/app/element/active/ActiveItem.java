@@ -13,6 +13,7 @@ import core.data.Variables;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Collections;
 
 /**
  * The base class from which all major GUI elements inherit. This provides items and widgets
@@ -30,16 +31,21 @@ public abstract class ActiveItem<C extends JComponent, V> extends TitledItem<C>
     private Variables<V> variable = null;
 
     /**
-     * Indicates whether or not this <code>ActiveItem</code> has been updated since the associated
-     * <code>Variables</code> object last changed.
+     * The <code>Script</code> object that can be used to add functionality to this <code>ActiveItem</code>.
      */
-    private boolean hasUpdated = true;
+    private Script script = null;
 
     /**
-     * The <code>Script</code> object that can be used to add functionality to this <code>ActiveItem</code>.
+     * The maximum number of times per second that this <code>ActiveItem</code> is refreshed when its
+     * <code>Variables</code> object changes, or 0 if it is refreshed on every change.
      */
-    private Script script = null;
+    private int maxRefreshRate = 0;
 
+    /**
+     * The time in nanoseconds at which this <code>ActiveItem</code> was last refreshed by the
+     * <code>RefreshTimer</code>.
+     */
+    private long lastRefreshTime = 0;
 
     /**
      * Creates an <code>ActiveItem</code> with a horizontal orientation and a blank border.
@@ -78,7 +84,9 @@ public abstract class ActiveItem<C extends JComponent, V> extends TitledItem<C>
     }
 
     /**
-     * Sets the <code>Variables</code> object associated with this <code>ActiveItem</code>.
+     * Sets the <code>Variables</code> object associated with this <code>ActiveItem</code>. If another
+     * <code>Variables</code> object was already associated with it, this <code>ActiveItem</code> is
+     * unlinked from that object first.
      *
      * @param variable a <code>Variables</code> object associated with this <code>ActiveItem</code>
      * @param showTitle indicates whether or not the variable dsiplay name should be displayed as a title
@@ -86,6 +94,10 @@ public abstract class ActiveItem<C extends JComponent, V> extends TitledItem<C>
      */
     public void setVariable(Variables<V> variable, boolean showTitle)
     {
+        if(this.variable != null)
+        {
+            ItemController.get().removeChild(this.variable, this);
+        }
         this.variable = variable;
         if(showTitle)
         {
@@ -94,6 +106,19 @@ public abstract class ActiveItem<C extends JComponent, V> extends TitledItem<C>
         ItemController.get().addChild(variable, this);
     }
 
+    /**
+     * Unlinks this <code>ActiveItem</code> from its <code>Variables</code> object, so that it is no
+     * longer updated when the variable changes.
+     */
+    public void removeVariable()
+    {
+        if(variable != null)
+        {
+            ItemController.get().removeChild(variable, this);
+            variable = null;
+        }
+    }
+
     /**
      * Returns the <code>Variables</code> object associated with this <code>ActiveItem</code>.
      *
@@ -161,16 +186,85 @@ public abstract class ActiveItem<C extends JComponent, V> extends TitledItem<C>
         runScript();
     }
 
-    @Override
-    public boolean hasUpdated()
+    /**
+     * Sets the maximum number of times per second that this <code>ActiveItem</code> is refreshed when
+     * its <code>Variables</code> object changes. Changes in between are not lost: the item is marked
+     * as dirty and refreshed once from the current value of the variable by the next frame of the
+     * <code>RefreshTimer</code>. Rates above <code>RefreshTimer.FRAME_RATE</code> are limited to the
+     * frame rate. If the rate is set to 0 while a change is waiting to be refreshed, the item is
+     * refreshed straight away. This must be called on the event dispatch thread.
+     *
+     * @param maxRefreshRate the maximum number of refreshes per second, or 0 to refresh this
+     *                       <code>ActiveItem</code> on every change
+     */
+    public void setMaxRefreshRate(int maxRefreshRate)
     {
-        return hasUpdated;
+        if(maxRefreshRate < 0)
+        {
+            throw new IllegalArgumentException("maxRefreshRate cannot be negative: " + maxRefreshRate);
+        }
+        this.maxRefreshRate = maxRefreshRate;
+        if(maxRefreshRate == 0 && RefreshTimer.get().remove(this))
+        {
+            ItemController.get().render(Collections.<ActiveItem>singletonList(this));
+        }
     }
 
-    @Override
-    public void hasUpdated(boolean hasUpdated)
+    /**
+     * Returns the maximum number of times per second that this <code>ActiveItem</code> is refreshed
+     * when its <code>Variables</code> object changes.
+     *
+     * @return the maximum number of refreshes per second, or 0 if this <code>ActiveItem</code> is
+     * refreshed on every change
+     */
+    public int getMaxRefreshRate()
+    {
+        return maxRefreshRate;
+    }
+
+    /**
+     * Indicates whether or not this <code>ActiveItem</code> has a maximum refresh rate.
+     *
+     * @return <code>true</code> if changes are rendered by the <code>RefreshTimer</code> and
+     * <code>false</code> if this <code>ActiveItem</code> is refreshed on every change
+     */
+    public boolean isRateLimited()
+    {
+        return maxRefreshRate > 0;
+    }
+
+    /**
+     * Returns the minimum time between two refreshes of this <code>ActiveItem</code>.
+     *
+     * @return the minimum time in nanoseconds between two refreshes, or 0 if this
+     * <code>ActiveItem</code> is refreshed on every change
+     */
+    long getRefreshInterval()
+    {
+        return maxRefreshRate == 0 ? 0 : 1000000000L / maxRefreshRate;
+    }
+
+    /**
+     * Returns the time at which this <code>ActiveItem</code> was last refreshed by the
+     * <code>RefreshTimer</code>.
+     *
+     * @return the time in nanoseconds at which this <code>ActiveItem</code> was last refreshed
+     */
+    long getLastRefreshTime()
+    {
+        return lastRefreshTime;
+    }
+
+    /**
+     * Sets the time at which this <code>ActiveItem</code> was last refreshed by the
+     * <code>RefreshTimer</code>.
+     *
+     * @param lastRefreshTime the time in nanoseconds at which this <code>ActiveItem</code> was
+     *                        last refreshed
+     */
+    void setLastRefreshTime(long lastRefreshTime)
     {
-        this.hasUpdated = hasUpdated;
+        this.lastRefreshTime = lastRefreshTime;
     }
 
 
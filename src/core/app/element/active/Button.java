@@ -9,6 +9,7 @@
 package core.app.element.active;
 
 import core.Updating;
+import core.app.TextMeasurer;
 import core.app.window.Windows;
 import javax.swing.*;
 
@@ -154,7 +155,7 @@ public class Button extends ActiveItem<JButton, Boolean> implements Buttons
         JButton button = new JButton(text);
         button.addActionListener(this);
         setComponent(button);
-        int textWidth = getFontMetrics(getFont()).stringWidth(text);
+        int textWidth = TextMeasurer.get().getWidth(getFont(), text);
         setSize(textWidth + 40, componentHeight);
     }
 
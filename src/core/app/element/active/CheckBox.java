@@ -86,6 +86,7 @@ public class CheckBox extends ActiveItem<JCheckBox, Boolean>
     @Override
     public void update(Updating parent)
     {
+        isSelected(getVariable().getValue());
         runScript();
     }
 }
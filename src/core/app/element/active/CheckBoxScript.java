@@ -49,25 +49,7 @@ public class CheckBoxScript implements Script
         }
         if (!ItemController.get().hasChanged())
         {
-            variable.hasUpdated(false);
-            boolean value = checkBox.isSelected();
-            if(value)
-            {
-                variable.setValue(true);
-            }
-            else
-            {
-                variable.setValue(false);
-            }
-            variable.hasUpdated(true);
-        }
-        else
-        {
-            if(!checkBox.hasUpdated())
-            {
-                checkBox.hasUpdated(true);
-                checkBox.isSelected(variable.getValue());
-            }
+            variable.setValue(checkBox.isSelected());
         }
     }
 
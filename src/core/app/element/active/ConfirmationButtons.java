@@ -10,7 +10,7 @@
 
 package core.app.element.active;
 
-import core.app.Nameable;
+import core.Nameable;
 
 /**
  * Convenience class combining the <code>Script</code> and <code>Nameable</code> interfaces
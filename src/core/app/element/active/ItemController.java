@@ -8,28 +8,76 @@
 
 package core.app.element.active;
 
+import core.UpdateQueue;
+import core.UpdateSink;
 import core.Updater;
 import core.Updating;
-import core.app.window.ApplicationWindow;
+
+import javax.swing.*;
+import java.awt.Dimension;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * A subclass of the <code>Updater</code> class that enables a <code>Values</code>
- * object to be used as a parent and links to <code>ActiveItem</code> child objects.
+ * The <code>UpdateSink</code> that shows the changes propagated by the shared <code>Updater</code>
+ * in Swing components. It is set as the sink of the <code>Updater</code> as soon as it is first
+ * used, which happens when the first component is linked to a variable through it, so the objects
+ * that hold data do not depend on Swing unless they are shown.
+ * <p>
+ * Child objects are Swing components, so they are only ever updated on the event dispatch thread.
+ * Changes made on any other thread are queued and handed to the event dispatch thread in drains,
+ * with a single <code>invokeLater</code> call covering every change queued before the drain runs.
+ * The queue conflates changes, so a parent that changes many times before a drain is only
+ * propagated once, with its latest value. Conflation can also be switched on for changes made on
+ * the event dispatch thread using <code>setConflating(true)</code>.
  *
  * @author Andrew Reilly
  * @version 1.1.0
  */
-public class ItemController extends Updater
+public class ItemController implements UpdateSink
 {
     private static ItemController instance = new ItemController();
 
+    static
+    {
+        Updater.get().setSink(instance);
+    }
+
+    private final Updater updater = Updater.get();
+
+    /**
+     * The child objects that are components and have been updated since the last refresh, mapped
+     * to the preferred size they had before they were first updated. Only these components are
+     * repainted when the changes are refreshed, and only those whose size changed are revalidated.
+     */
+    private LinkedHashMap<JComponent, Dimension> touchedItems = new LinkedHashMap<>();
+
     /**
-     * BooleanVariable value indicating whether or not the parent value has changed.
-     * When this is set to <code>true</code> items that are being updated do
-     * not then send their new value to the <code>ItemController</code>,
-     * as this would result in an endless loop of updating items.
+     * Parent objects that have changed on threads other than the event dispatch thread, or on any
+     * thread while conflating, and are waiting to be propagated by the next drain.
      */
-    private boolean hasChanged = false;
+    private UpdateQueue pendingParents = new UpdateQueue();
+
+    /**
+     * Indicates whether or not changes made on the event dispatch thread are also queued and
+     * conflated rather than propagated straight away.
+     */
+    private volatile boolean isConflating = false;
+
+    /**
+     * Indicates whether or not a drain of <code>pendingParents</code> has been passed to the event
+     * dispatch thread and has not started yet.
+     */
+    private AtomicBoolean isDrainScheduled = new AtomicBoolean(false);
+
+    /**
+     * Indicates whether or not queued parent objects are being passed back to the
+     * <code>Updater</code>, during which changes are not taken again. Only used on the event
+     * dispatch thread.
+     */
+    private boolean isDraining = false;
 
     /**
      * Return the instance of this object used to access its methods.
@@ -42,46 +90,239 @@ public class ItemController extends Updater
     }
 
     /**
-     * Iterates over all of the child objects linked to the given parent object
-     * and updates their values.
+     * Links a child object to a parent object through the shared <code>Updater</code>. Components
+     * are linked through this method rather than straight to the <code>Updater</code> so that this
+     * sink is set before any of them is updated.
+     *
+     * @param parent a parent object
+     * @param child a child object to be added
+     */
+    public void addChild(Updating parent, Updating child)
+    {
+        updater.addChild(parent, child);
+    }
+
+    /**
+     * Unlinks a child object from a parent object in the shared <code>Updater</code>.
+     *
+     * @param parent a parent object
+     * @param child a child object to be removed
+     */
+    public void removeChild(Updating parent, Updating child)
+    {
+        updater.removeChild(parent, child);
+    }
+
+    /**
+     * Takes a change to a parent object if it cannot be propagated straight away. If it is not made
+     * on the event dispatch thread, or if conflation is switched on, the parent is queued and its
+     * children are updated by the next drain. Changes made while an epoch is in progress, and
+     * changes passed back by a drain, are always propagated.
      *
-     * @param parent an object implementing the <code>Variables</code> interface
+     * @param parent the parent object that has changed
+     * @return <code>true</code> if the change has been queued and <code>false</code> if it is to be
+     * propagated straight away
      */
     @Override
-    public boolean update(Updating parent)
+    public boolean offer(Updating parent)
     {
-        if(hasParent(parent))
+        if(SwingUtilities.isEventDispatchThread() && (isDraining || !isConflating || updater.isPropagating()))
         {
-            if(parent.hasUpdated() | !hasChanged)
+            return false;
+        }
+        pendingParents.offer(parent);
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * Updates a child object and records it so that it can be refreshed once the epoch has finished.
+     * <code>ActiveItem</code>s that have a maximum refresh rate are instead marked as dirty and
+     * rendered by the <code>RefreshTimer</code>.
+     *
+     * @param parent the parent object that caused the child to be updated
+     * @param child the child object to be updated
+     */
+    @Override
+    public void updateChild(Updating parent, Updating child)
+    {
+        if(child instanceof ActiveItem && ((ActiveItem)child).isRateLimited())
+        {
+            RefreshTimer.get().markDirty((ActiveItem)child);
+            return;
+        }
+        touch(child);
+        child.update(parent);
+    }
+
+    /**
+     * Updates the given items from the current values of their variables and refreshes them. This
+     * is used by the <code>RefreshTimer</code> to render items that have a maximum refresh rate.
+     *
+     * @param items the <code>ActiveItem</code>s to be rendered
+     */
+    void render(Collection<ActiveItem> items)
+    {
+        updater.propagate(() ->
+        {
+            for(ActiveItem item : items)
             {
-                hasChanged = true;
-                for(Updating item : getItems(parent))
+                if(item.hasVariable())
                 {
-                    item.hasUpdated(false);
-                    if(hasChanged)
-                    {
-                        item.update(parent);
-                    }
+                    touch(item);
+                    item.update(item.getVariable());
                 }
-                hasChanged = false;
             }
-            ApplicationWindow.get().update();
-            return true;
+        });
+    }
+
+    /**
+     * Passes a drain of the queued parent objects to the event dispatch thread, unless one is
+     * already waiting to run.
+     */
+    private void scheduleDrain()
+    {
+        if(isDrainScheduled.compareAndSet(false, true))
+        {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    /**
+     * Propagates every queued parent object as a single batch. The flag is cleared before the
+     * queue is read, so a parent queued while the drain runs either gets picked up by this drain
+     * or schedules the next one.
+     */
+    private void drain()
+    {
+        isDrainScheduled.set(false);
+        isDraining = true;
+        updater.beginBatch();
+        try
+        {
+            Updating parent;
+            while((parent = pendingParents.poll()) != null)
+            {
+                updater.update(parent);
+            }
+        }
+        finally
+        {
+            isDraining = false;
+            updater.commitBatch();
+        }
+    }
+
+    /**
+     * Switches conflation on or off for changes made on the event dispatch thread. When it is on,
+     * those changes are queued like changes made on other threads, so a variable written many
+     * times between drains only has its children updated once, with its latest value. Changes made
+     * on other threads are always conflated.
+     *
+     * @param isConflating <code>true</code> to conflate changes made on the event dispatch thread
+     * and <code>false</code> to propagate them straight away
+     */
+    public void setConflating(boolean isConflating)
+    {
+        this.isConflating = isConflating;
+    }
+
+    /**
+     * Indicates whether or not changes made on the event dispatch thread are conflated.
+     *
+     * @return <code>true</code> if changes made on the event dispatch thread are conflated and
+     * <code>false</code> if they are propagated straight away
+     */
+    public boolean isConflating()
+    {
+        return isConflating;
+    }
+
+    /**
+     * Returns the number of changes that have been queued for a drain, including those that were
+     * conflated with an earlier change to the same parent.
+     *
+     * @return a <code>long</code> indicating the number of changes queued for a drain
+     */
+    public long getWritesReceived()
+    {
+        return pendingParents.getReceived();
+    }
+
+    /**
+     * Returns the number of queued changes that have been delivered to child objects by a drain.
+     *
+     * @return a <code>long</code> indicating the number of queued changes delivered by a drain
+     */
+    public long getWritesDelivered()
+    {
+        return pendingParents.getDelivered();
+    }
+
+    /**
+     * Records a child object that is about to be updated so that it can be refreshed afterwards.
+     * The preferred size is only recorded the first time the child is touched, so that it reflects
+     * the size before any of the pending changes.
+     *
+     * @param item the child object that is about to be updated
+     */
+    private void touch(Updating item)
+    {
+        if(item instanceof JComponent && !touchedItems.containsKey(item))
+        {
+            JComponent component = (JComponent)item;
+            touchedItems.put(component, component.getPreferredSize());
+        }
+    }
+
+    /**
+     * Refreshes the child objects updated since the last refresh. Every updated component is
+     * repainted, but only components whose preferred size has changed are revalidated, so the
+     * rest of the window is neither laid out again nor repainted.
+     */
+    @Override
+    public void refresh()
+    {
+        for(Map.Entry<JComponent, Dimension> entry : touchedItems.entrySet())
+        {
+            JComponent component = entry.getKey();
+            if(!component.getPreferredSize().equals(entry.getValue()))
+            {
+                component.revalidate();
+            }
+            component.repaint();
+        }
+        touchedItems.clear();
+    }
+
+    /**
+     * Runs the given code as a single batch of changes in the shared <code>Updater</code>. When
+     * called on any other thread than the event dispatch thread the code is simply run, as changes
+     * made on other threads are already collected into batches by the drains.
+     *
+     * @param batch the code that makes the changes
+     */
+    public void runBatched(Runnable batch)
+    {
+        if(!SwingUtilities.isEventDispatchThread())
+        {
+            batch.run();
+            return;
         }
-        return false;
+        updater.runBatched(batch);
     }
 
     /**
-     * Indicates whether or not the parent <code>Values</code> object has already changed.
-     * Once the parent object has changed child items will no longer attempt to change its
-     * value so that an endless loop of changes can be avoided.
+     * Indicates whether or not the parent <code>Values</code> object has already changed, meaning
+     * that an epoch is in progress. While it is, child items will not attempt to change the value
+     * of their variable, as the change they are seeing came from the variable.
      *
      * @return <code>true</code> when the parent <code>Values</code> object has already changed
      * amd <code>false</code> if not.
      */
     public boolean hasChanged()
     {
-        return hasChanged;
+        return updater.isPropagating();
     }
 
 }
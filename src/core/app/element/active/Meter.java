@@ -11,11 +11,14 @@ package core.app.element.active;
 import core.Updating;
 import core.app.Text;
 import core.app.element.Label;
+import core.data.DecimalFormatter;
 import core.data.Variables;
 
 /**
  * Displays the current value of a <code>Variable</code>. The displayed value is updated whenever
- * the value of the <code>Variable</code> changes.
+ * the value of the <code>Variable</code> changes. Numeric values are rounded to the scale of the
+ * <code>Variable</code> if it has been set, and shown in full if not, and are formatted into a
+ * reused buffer, and the text of the label is only replaced when the formatted characters change.
  *
  * @author Andrew Reilly
  * @version 1.1.0
@@ -23,6 +26,11 @@ import core.data.Variables;
 public class Meter<V> extends ActiveItem<Label, V>
 {
 
+    /**
+     * Formats the value of the variable into the text displayed by this <code>Meter</code>.
+     */
+    private DecimalFormatter formatter = new DecimalFormatter(DecimalFormatter.UNSCALED);
+
     /**
      * Creates a <code>Meter</code> that displays the value of the given <code>Variable</code>.
      *
@@ -31,25 +39,27 @@ public class Meter<V> extends ActiveItem<Label, V>
     public Meter(Variables<V> variable, boolean showTitle)
     {
         super(variable, showTitle);
-        String string = "" + variable.getValue();;
-        Label label = new Label(new Text(string, Text.OUTPUT));
+        formatter.format(variable);
+        Label label = new Label(new Text(formatter.toString(), Text.OUTPUT));
         setTitle(variable.getDisplayName());
         setScript(new MeterScript(this));
         setComponent(label);
-        checkScale();
     }
 
     /**
-     * Removes any trailing zeroes in the displayed text when the value is an <code>Integer</code>
+     * Formats the current value of the variable using its scale and displays it, unless the
+     * formatted characters are the same as those already displayed.
+     *
+     * @return <code>true</code> if the displayed text has changed and <code>false</code> if not
      */
-    public void checkScale()
+    public boolean checkScale()
     {
-        if(getVariable().getValue() instanceof Integer)
+        if(formatter.format(getVariable()))
         {
-            String labelText = getComponent().getText();
-            labelText = labelText.replace(".0", "");
-            getComponent().setText(labelText);
+            setText(formatter.toString());
+            return true;
         }
+        return false;
     }
 
     /**
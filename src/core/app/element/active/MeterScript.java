@@ -8,7 +8,6 @@
 
 package core.app.element.active;
 
-import core.data.Variables;
 import tests.P;
 
 /**
@@ -37,12 +36,8 @@ public class MeterScript implements Script
 
     public void run()
     {
-        if(!meter.hasUpdated())
+        if(meter.checkScale())
         {
-            Variables meterVariable = meter.getVariable();
-            meter.hasUpdated(true);
-            meter.setText("" + meterVariable.getValue());
-            meter.checkScale();
             meter.resize();
         }
     }
@@ -0,0 +1,132 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element.active;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Singleton that refreshes <code>ActiveItem</code>s that have a maximum refresh rate. Instead of
+ * being updated every time their variable changes, these items are marked as dirty and a single
+ * shared Swing <code>Timer</code> re-renders each dirty item once per frame from the current value
+ * of its variable. The timer ticks at <code>FRAME_RATE</code> frames per second and only runs while
+ * there are dirty items, so refresh rates above the frame rate are limited to the frame rate.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class RefreshTimer
+{
+    /**
+     * The number of times per second that the timer checks for dirty items.
+     */
+    public static final int FRAME_RATE = 60;
+
+    private static RefreshTimer instance = new RefreshTimer();
+
+    /**
+     * The items that have changed since they were last rendered, in the order in which they
+     * first changed.
+     */
+    private LinkedHashSet<ActiveItem> dirtyItems = new LinkedHashSet<>();
+
+    /**
+     * The timer that renders the dirty items. This is only running while there are dirty items.
+     */
+    private Timer timer;
+
+    private RefreshTimer()
+    {
+        timer = new Timer(1000 / FRAME_RATE, e -> renderFrame());
+    }
+
+    /**
+     * Return the instance of this object used to access its methods.
+     *
+     * @return the instance of this object used to access its methods
+     */
+    public static RefreshTimer get()
+    {
+        return instance;
+    }
+
+    /**
+     * Marks the given item as dirty so that it is re-rendered by the next frame that falls
+     * due for it. This must be called on the event dispatch thread.
+     *
+     * @param item an <code>ActiveItem</code> with a maximum refresh rate
+     */
+    public void markDirty(ActiveItem item)
+    {
+        dirtyItems.add(item);
+        if(!timer.isRunning())
+        {
+            timer.start();
+        }
+    }
+
+    /**
+     * Indicates whether or not the given item is waiting to be re-rendered.
+     *
+     * @param item an <code>ActiveItem</code>
+     * @return <code>true</code> if the item is dirty and <code>false</code> if not
+     */
+    public boolean isDirty(ActiveItem item)
+    {
+        return dirtyItems.contains(item);
+    }
+
+    /**
+     * Stops waiting to re-render the given item. This must be called on the event dispatch thread.
+     *
+     * @param item an <code>ActiveItem</code>
+     * @return <code>true</code> if the item was dirty and <code>false</code> if not
+     */
+    boolean remove(ActiveItem item)
+    {
+        boolean isRemoved = dirtyItems.remove(item);
+        if(dirtyItems.isEmpty())
+        {
+            timer.stop();
+        }
+        return isRemoved;
+    }
+
+    /**
+     * Re-renders every dirty item whose refresh interval has passed since it was last rendered,
+     * and every dirty item that is no longer rate limited. Items that are not yet due stay dirty
+     * until a later frame.
+     */
+    private void renderFrame()
+    {
+        long now = System.nanoTime();
+        ArrayList<ActiveItem> frame = new ArrayList<>();
+        Iterator<ActiveItem> iterator = dirtyItems.iterator();
+        while(iterator.hasNext())
+        {
+            ActiveItem item = iterator.next();
+            if(!item.isRateLimited() || now - item.getLastRefreshTime() >= item.getRefreshInterval())
+            {
+                iterator.remove();
+                item.setLastRefreshTime(now);
+                frame.add(item);
+            }
+        }
+        if(!frame.isEmpty())
+        {
+            ItemController.get().render(frame);
+        }
+        if(dirtyItems.isEmpty())
+        {
+            timer.stop();
+        }
+    }
+}
@@ -9,7 +9,7 @@
 package core.app.element.active;
 
 import core.Updating;
-import core.data.Range;
+import core.data.Bounded;
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -26,13 +26,14 @@ public class Spinner<V extends Number> extends ActiveItem<JSpinner, V> implement
 {
 
     /**
-     * Creates a <code>Spinner</code> using an <code>IntegerVariable</code>.
+     * Creates a <code>Spinner</code> using a <code>Bounded</code> variable, such as a <code>Range</code>
+     * or an <code>IntVariable</code>.
      *
-     * @param variable an <code>IntegerVariable</code> that sets the value parameters and remains
-     * connected to this <code>Spinner</code> so that it can be updated as the <code>IntegerVariable</code>
+     * @param variable a <code>Bounded</code> variable that sets the value parameters and remains
+     * connected to this <code>Spinner</code> so that it can be updated as the variable
      * changes value.
      */
-    public Spinner(Range<V> variable, boolean showTitle)
+    public Spinner(Bounded<V> variable, boolean showTitle)
     {
         super(variable, showTitle);
         Comparable min = new ComparableWrapper(variable.getMin());
@@ -95,7 +96,7 @@ public class Spinner<V extends Number> extends ActiveItem<JSpinner, V> implement
     @Override
     public void update(Updating parent)
     {
-
+        getComponent().getModel().setValue(getVariable().getValue());
     }
 
     /**
@@ -43,18 +43,8 @@ public class SpinnerScript<V extends Number> implements Script
         JSpinner spinnerComponent = (JSpinner)spinner.getComponent();
         if (!ItemController.get().hasChanged())
         {
-            spinnerVariable.hasUpdated(false);
             V value = (V)spinnerComponent.getModel().getValue();
             spinnerVariable.setValue(value);
-            spinnerVariable.hasUpdated(true);
-        }
-        else
-        {
-            if(!spinner.hasUpdated())
-            {
-                spinner.hasUpdated(true);
-                spinnerComponent.getModel().setValue(spinnerVariable.getValue());
-            }
         }
     }
 }
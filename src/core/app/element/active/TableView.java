@@ -0,0 +1,462 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element.active;
+
+import core.Updating;
+import core.app.Text;
+import core.app.TextMeasurer;
+import core.app.element.Borders;
+import core.app.element.Element;
+import core.app.element.ListLayout;
+import core.data.Column;
+import core.data.DecimalFormatter;
+import core.data.RowOrder;
+import core.data.Table;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * An <code>Element</code> that shows a <code>Table</code> in a scroll pane. Rather than holding a
+ * component for each cell, the cells are painted straight from the columns of the table, and only
+ * the cells that can be seen are painted, so a table of any size costs about as much to show as the
+ * part of it that fits in the viewport. Each value is formatted with the scale of its column into a
+ * reused buffer, so painting a cell does not create any objects.
+ * <p>
+ * The view is linked to its table by the <code>ItemController</code>. When the table is updated,
+ * only the changed cells that can be seen are repainted.
+ * <p>
+ * The rows can be filtered and sorted by giving the view a <code>RowOrder</code>, in which case each
+ * row of the view shows the row of the table at the same position in the order. The view is
+ * resized and repainted each time a new order is published.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class TableView extends Element
+{
+    /**
+     * The width of a column that has not been given a width.
+     */
+    public static final int DEFAULT_COLUMN_WIDTH = 80;
+
+    /**
+     * The space between the text of a cell and the edges of the cell.
+     */
+    private static final int PADDING = 4;
+
+    private static final Color GRID_COLOR = new Color(224, 224, 224);
+
+    private final Table table;
+
+    private final JScrollPane scrollPane;
+
+    private final Cells cells = new Cells();
+
+    private final Header header = new Header();
+
+    private Font font = Text.OUTPUT;
+
+    private int rowHeight;
+
+    private int baseline;
+
+    /**
+     * The width of each column that has been given a width, or 0 if it has the default width.
+     */
+    private int[] columnWidths = new int[0];
+
+    /**
+     * The x coordinate of the left edge of each column, and of the right edge of the last column.
+     */
+    private int[] columnOffsets = new int[]{0};
+
+    /**
+     * The number of rows and columns that the cells were last sized for.
+     */
+    private int shownRowCount = 0;
+
+    private int shownColumnCount = 0;
+
+    /**
+     * The number of changes that had been made to the table when this view last looked at it.
+     */
+    private long seenChanges;
+
+    private final int[] changedRange = new int[4];
+
+    /**
+     * Formats the values of cells as they are painted.
+     */
+    private final DecimalFormatter formatter = new DecimalFormatter(0);
+
+    /**
+     * The object linked to the table, which repaints the changed cells. It is kept separate from
+     * this component so that the <code>ItemController</code> does not repaint the whole view.
+     */
+    private final Updating tableListener = parent -> showChanges();
+
+    /**
+     * The order in which the rows are shown, or <code>null</code> if they are shown in the order of
+     * the table.
+     */
+    private RowOrder rowOrder = null;
+
+    /**
+     * The object linked to the row order, which resizes and repaints the cells when a new order is
+     * published.
+     */
+    private final Updating orderListener = parent -> resizeCells();
+
+    /**
+     * Creates a view of the given table.
+     *
+     * @param table the <code>Table</code> shown by this view
+     */
+    public TableView(Table table)
+    {
+        super(new ListLayout(), Borders.NONE);
+        this.table = table;
+        setTableFont(font);
+        scrollPane = new JScrollPane(cells);
+        scrollPane.setColumnHeaderView(header);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        add(scrollPane);
+        seenChanges = table.getChangeCount();
+        resizeCells();
+        ItemController.get().addChild(table, tableListener);
+    }
+
+    /**
+     * Returns the table shown by this view.
+     *
+     * @return the <code>Table</code> shown by this view
+     */
+    public Table getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Sets the order in which the rows are shown. The order must be an order of this view's table.
+     *
+     * @param rowOrder the <code>RowOrder</code> of the rows, or <code>null</code> to show the rows in
+     * the order of the table
+     */
+    public void setRowOrder(RowOrder rowOrder)
+    {
+        if(rowOrder != null && rowOrder.getTable() != table)
+        {
+            throw new IllegalArgumentException("Row order is not an order of table " + table.getName());
+        }
+        if(this.rowOrder != null)
+        {
+            ItemController.get().removeChild(this.rowOrder, orderListener);
+        }
+        this.rowOrder = rowOrder;
+        if(rowOrder != null)
+        {
+            ItemController.get().addChild(rowOrder, orderListener);
+        }
+        resizeCells();
+    }
+
+    /**
+     * Returns the order in which the rows are shown.
+     *
+     * @return the <code>RowOrder</code> of the rows, or <code>null</code> if the rows are shown in
+     * the order of the table
+     */
+    public RowOrder getRowOrder()
+    {
+        return rowOrder;
+    }
+
+    /**
+     * Sets the font used to show the values and names of the columns.
+     *
+     * @param font the <code>Font</code> used by this view
+     */
+    public void setTableFont(Font font)
+    {
+        this.font = font;
+        FontMetrics metrics = cells.getFontMetrics(font);
+        rowHeight = metrics.getHeight() + 2;
+        baseline = 1 + metrics.getAscent();
+        cells.revalidate();
+        header.revalidate();
+        cells.repaint();
+        header.repaint();
+    }
+
+    /**
+     * Returns the height of each row.
+     *
+     * @return an <code>int</code> indicating the height of each row in pixels
+     */
+    public int getRowHeight()
+    {
+        return rowHeight;
+    }
+
+    /**
+     * Sets the width of the column at the given index.
+     *
+     * @param column the index of the column
+     * @param width the width of the column in pixels
+     */
+    public void setColumnWidth(int column, int width)
+    {
+        if(column >= columnWidths.length)
+        {
+            columnWidths = Arrays.copyOf(columnWidths, column + 1);
+        }
+        columnWidths[column] = width;
+        resizeCells();
+    }
+
+    /**
+     * Returns the width of the column at the given index.
+     *
+     * @param column the index of the column
+     * @return the width of the column in pixels
+     */
+    public int getColumnWidth(int column)
+    {
+        return column < columnWidths.length && columnWidths[column] > 0 ? columnWidths[column] : DEFAULT_COLUMN_WIDTH;
+    }
+
+    /**
+     * Returns the scroll pane that the cells are shown in.
+     *
+     * @return the <code>JScrollPane</code> that the cells are shown in
+     */
+    public JScrollPane getScrollPane()
+    {
+        return scrollPane;
+    }
+
+    /**
+     * Repaints the cells that have changed since the table was last looked at and can be seen.
+     * If rows or columns have been added or removed, the cells are resized and all of them are
+     * repainted. While the rows are filtered or sorted, a changed row may be shown anywhere, so
+     * every visible row of the changed columns is repainted.
+     */
+    private void showChanges()
+    {
+        seenChanges = table.getChanges(seenChanges, changedRange);
+        if(getRowCount() != shownRowCount || table.getColumnCount() != shownColumnCount)
+        {
+            resizeCells();
+            return;
+        }
+        boolean isOrdered = rowOrder != null && rowOrder.getRows() != null;
+        int firstColumn = Math.min(changedRange[2], shownColumnCount);
+        int lastColumn = Math.min(changedRange[3], shownColumnCount);
+        int firstRow = isOrdered ? 0 : Math.min(changedRange[0], shownRowCount);
+        int lastRow = isOrdered ? shownRowCount : Math.min(changedRange[1], shownRowCount);
+        if(firstColumn >= lastColumn || firstRow >= lastRow)
+        {
+            return;
+        }
+        Rectangle changed = new Rectangle(columnOffsets[firstColumn], firstRow * rowHeight,
+            columnOffsets[lastColumn] - columnOffsets[firstColumn], (lastRow - firstRow) * rowHeight);
+        Rectangle visible = cells.getVisibleRect();
+        Rectangle shown = changed.intersection(visible);
+        if(!shown.isEmpty())
+        {
+            cells.repaint(shown);
+        }
+    }
+
+    /**
+     * Finds the positions of the columns again and resizes the cells to hold every row and column.
+     */
+    private void resizeCells()
+    {
+        shownRowCount = getRowCount();
+        shownColumnCount = table.getColumnCount();
+        if(columnOffsets.length != shownColumnCount + 1)
+        {
+            columnOffsets = new int[shownColumnCount + 1];
+        }
+        for(int i = 0; i < shownColumnCount; i++)
+        {
+            columnOffsets[i + 1] = columnOffsets[i] + getColumnWidth(i);
+        }
+        cells.revalidate();
+        header.revalidate();
+        cells.repaint();
+        header.repaint();
+    }
+
+    /**
+     * Returns the number of rows shown, after any filtering.
+     */
+    private int getRowCount()
+    {
+        return rowOrder == null ? table.getRowCount() : rowOrder.getRowCount();
+    }
+
+    /**
+     * Returns the index of the column that holds the given x coordinate, or the number of columns
+     * if it is to the right of the last column.
+     */
+    private int getColumnAt(int x)
+    {
+        int index = Arrays.binarySearch(columnOffsets, 0, shownColumnCount + 1, x);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    /**
+     * Draws the given characters right-aligned in a cell.
+     */
+    private void drawRight(Graphics g, char[] chars, int length, int column, int y)
+    {
+        int width = TextMeasurer.get().getWidth(font, chars, 0, length);
+        g.drawChars(chars, 0, length, columnOffsets[column + 1] - PADDING - width, y);
+    }
+
+    /**
+     * The component that the cells are painted on, which is the size of the whole table.
+     */
+    private class Cells extends JComponent implements Scrollable
+    {
+        private Cells()
+        {
+            setOpaque(true);
+            setBackground(Color.WHITE);
+            setForeground(Color.BLACK);
+        }
+
+        @Override
+        public Dimension getPreferredSize()
+        {
+            long height = (long)shownRowCount * rowHeight;
+            return new Dimension(columnOffsets[shownColumnCount], (int)Math.min(height, Integer.MAX_VALUE));
+        }
+
+        @Override
+        protected void paintComponent(Graphics g)
+        {
+            Rectangle clip = g.getClipBounds();
+            if(clip == null)
+            {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.setColor(getBackground());
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+            int[] rows = rowOrder == null ? null : rowOrder.getRows();
+            int tableRowCount = table.getRowCount();
+            int rowCount = Math.min(shownRowCount, rows == null ? tableRowCount : rows.length);
+            int firstRow = clip.y / rowHeight;
+            int lastRow = (int)Math.min(rowCount, ((long)clip.y + clip.height + rowHeight - 1) / rowHeight);
+            int firstColumn = getColumnAt(clip.x);
+            int lastColumn = Math.min(getColumnAt(clip.x + clip.width) + 1, Math.min(shownColumnCount, table.getColumnCount()));
+            g.setFont(font);
+            for(int column = firstColumn; column < lastColumn; column++)
+            {
+                Column values = table.getColumn(column);
+                int left = columnOffsets[column];
+                int right = columnOffsets[column + 1];
+                g.setColor(GRID_COLOR);
+                g.drawLine(right - 1, clip.y, right - 1, clip.y + clip.height);
+                g.setClip(left, clip.y, right - left - 1, clip.height);
+                g.setColor(getForeground());
+                for(int row = firstRow; row < lastRow; row++)
+                {
+                    int tableRow = rows == null ? row : rows[row];
+                    if(tableRow < tableRowCount)
+                    {
+                        values.format(tableRow, formatter);
+                        drawRight(g, formatter.getChars(), formatter.getLength(), column, row * rowHeight + baseline);
+                    }
+                }
+                g.setClip(clip.x, clip.y, clip.width, clip.height);
+            }
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize()
+        {
+            return new Dimension(Math.min(columnOffsets[shownColumnCount], 10 * DEFAULT_COLUMN_WIDTH), 20 * rowHeight);
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+        {
+            return orientation == SwingConstants.VERTICAL ? rowHeight : DEFAULT_COLUMN_WIDTH / 4;
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+        {
+            return orientation == SwingConstants.VERTICAL ? Math.max(rowHeight, visibleRect.height - rowHeight) : visibleRect.width;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight()
+        {
+            return false;
+        }
+    }
+
+    /**
+     * The component that the names of the columns are painted on.
+     */
+    private class Header extends JComponent
+    {
+        private Header()
+        {
+            setForeground(Color.BLACK);
+        }
+
+        @Override
+        public Dimension getPreferredSize()
+        {
+            return new Dimension(columnOffsets[shownColumnCount], rowHeight);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g)
+        {
+            Rectangle clip = g.getClipBounds();
+            if(clip == null)
+            {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g.setFont(font);
+            int firstColumn = getColumnAt(clip.x);
+            int lastColumn = Math.min(getColumnAt(clip.x + clip.width) + 1, Math.min(shownColumnCount, table.getColumnCount()));
+            for(int column = firstColumn; column < lastColumn; column++)
+            {
+                int left = columnOffsets[column];
+                int right = columnOffsets[column + 1];
+                g.setColor(GRID_COLOR);
+                g.drawLine(right - 1, 0, right - 1, rowHeight);
+                g.drawLine(left, rowHeight - 1, right, rowHeight - 1);
+                String name = table.getColumn(column).getDisplayName();
+                if(name != null)
+                {
+                    g.setClip(left, 0, right - left - 1, rowHeight);
+                    g.setColor(getForeground());
+                    g.drawString(name, right - PADDING - TextMeasurer.get().getWidth(font, name), baseline);
+                    g.setClip(clip.x, clip.y, clip.width, clip.height);
+                }
+            }
+        }
+    }
+}
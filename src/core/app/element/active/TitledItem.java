@@ -9,6 +9,7 @@
 package core.app.element.active;
 
 import core.Utils;
+import core.app.TextMeasurer;
 import core.app.element.Borders;
 import core.app.element.Item;
 import core.app.element.Label;
@@ -71,7 +72,7 @@ public class TitledItem<C  extends JComponent> extends Item<C>
         {
             titleLabel = new JLabel(title);
             titleLabel.setFont(Label.getDefaultFont());
-            int textWidth = getFontMetrics(titleLabel.getFont()).stringWidth(title);
+            int textWidth = TextMeasurer.get().getWidth(titleLabel.getFont(), title);
             Utils.setComponentSize(titleLabel, textWidth, componentHeight);
             add(titleLabel);
             add(Box.createRigidArea(new Dimension(5,0)));
@@ -9,6 +9,7 @@
 package core.app.element.active;
 
 import core.Updating;
+import core.app.TextMeasurer;
 import core.data.Variables;
 
 import javax.swing.*;
@@ -105,8 +106,8 @@ public class ToggleButton extends Button
         }
         getComponent().addActionListener(this);
         setComponent(getComponent());
-        int trueTextWidth = getFontMetrics(getFont()).stringWidth(trueText);
-        int falseTextWidth = getFontMetrics(getFont()).stringWidth(falseText);
+        int trueTextWidth = TextMeasurer.get().getWidth(getFont(), trueText);
+        int falseTextWidth = TextMeasurer.get().getWidth(getFont(), falseText);
         if(trueTextWidth > falseTextWidth)
         {
             setSize(trueTextWidth + 40, componentHeight);
@@ -124,31 +125,18 @@ public class ToggleButton extends Button
      */
     public boolean toggle()
     {
-        update(getVariable());
-        return getVariable().getValue();
+        boolean currentValue = getVariable().getValue();
+        getVariable().setValue(!currentValue);
+        return !currentValue;
     }
 
     /**
-     * Changes the state of the button to the opposite of its current state.
+     * Sets the button text to match the value of the variable.
      */
     @Override
     public void update(Updating parent)
     {
-        if (!ItemController.get().hasChanged())
-        {
-            getVariable().hasUpdated(false);
-            boolean currentValue = getVariable().getValue();
-            getVariable().setValue(!currentValue);
-            getVariable().hasUpdated(true);
-        }
-        else
-        {
-            if(!hasUpdated())
-            {
-                hasUpdated(true);
-                setText();
-            }
-        }
+        setText();
     }
 
     /**
@@ -0,0 +1,467 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.app.element.active;
+
+import core.app.element.Borders;
+import core.app.element.Element;
+import core.app.element.Item;
+import core.app.element.ListLayout;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+
+/**
+ * An <code>Element</code> that shows a long list of rows in a scroll pane while only creating
+ * <code>Item</code>s for the rows that can be seen, plus <code>overscan</code> rows above and below
+ * them. As the list is scrolled, the items of rows that move out of view are recycled and bound to
+ * the rows that move into view by a <code>RowBinder</code>, so a list of any length holds about as
+ * many items as fit in its viewport.
+ * <p>
+ * When an <code>ActiveItem</code> is recycled it is unlinked from its variable, so only the items of
+ * the rows being shown are updated by the <code>ItemController</code>. After the binder has linked
+ * the items of newly shown rows to their variables, they are updated from the current values of
+ * those variables.
+ * <p>
+ * Every row has the same height, which is either given or taken from the preferred height of the
+ * first item created.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class VirtualList<I extends Item<?>> extends Element
+{
+    /**
+     * The number of rows that are bound above and below the visible rows by default.
+     */
+    public static final int DEFAULT_OVERSCAN = 4;
+
+    private final RowBinder<I> binder;
+
+    private final JScrollPane scrollPane;
+
+    /**
+     * The component that the row items are placed on, which is as tall as all of the rows.
+     */
+    private final Rows rows = new Rows();
+
+    private int rowCount;
+
+    /**
+     * The height of every row, or 0 if it is to be taken from the first item created.
+     */
+    private int rowHeight;
+
+    /**
+     * The largest preferred width of the items created, which is the preferred width of the rows.
+     */
+    private int rowWidth = 0;
+
+    private int overscan = DEFAULT_OVERSCAN;
+
+    /**
+     * The index of the row bound to the first item in <code>boundItems</code>.
+     */
+    private int firstBoundRow = 0;
+
+    /**
+     * The items bound to consecutive rows, starting with <code>firstBoundRow</code>.
+     */
+    private ArrayList<I> boundItems = new ArrayList<>();
+
+    /**
+     * The items that are not bound to a row and are waiting to be reused.
+     */
+    private ArrayList<I> spareItems = new ArrayList<>();
+
+    /**
+     * Whether the bound rows are being changed, during which changes to the viewport are ignored.
+     */
+    private boolean isBinding = false;
+
+    /**
+     * Creates a list of the given number of rows, taking the height of the rows from the first
+     * item created.
+     *
+     * @param rowCount the number of rows in the list
+     * @param binder the <code>RowBinder</code> that creates items and binds them to rows
+     */
+    public VirtualList(int rowCount, RowBinder<I> binder)
+    {
+        this(rowCount, 0, binder);
+    }
+
+    /**
+     * Creates a list of the given number of rows with the given height.
+     *
+     * @param rowCount the number of rows in the list
+     * @param rowHeight the height of every row in pixels, or 0 to take it from the first item created
+     * @param binder the <code>RowBinder</code> that creates items and binds them to rows
+     */
+    public VirtualList(int rowCount, int rowHeight, RowBinder<I> binder)
+    {
+        super(new ListLayout(), Borders.NONE);
+        if(rowCount < 0 || rowHeight < 0)
+        {
+            throw new IllegalArgumentException("Row count and height cannot be negative: " + rowCount + ", " + rowHeight);
+        }
+        this.rowCount = rowCount;
+        this.rowHeight = rowHeight;
+        this.binder = binder;
+        scrollPane = new JScrollPane(rows, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
+            ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.getViewport().addChangeListener(e -> bindVisibleRows());
+        add(scrollPane);
+    }
+
+    /**
+     * Returns the number of rows in this list.
+     *
+     * @return an <code>int</code> indicating the number of rows in this list
+     */
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Sets the number of rows in this list. Rows that are still shown keep their items, and items
+     * of rows that no longer exist are recycled.
+     *
+     * @param rowCount the number of rows in this list
+     */
+    public void setRowCount(int rowCount)
+    {
+        if(rowCount < 0)
+        {
+            throw new IllegalArgumentException("Row count cannot be negative: " + rowCount);
+        }
+        this.rowCount = rowCount;
+        rows.revalidate();
+        bindVisibleRows();
+    }
+
+    /**
+     * Returns the height of every row.
+     *
+     * @return an <code>int</code> indicating the height of every row in pixels, or 0 if no item has
+     * been created yet to take it from
+     */
+    public int getRowHeight()
+    {
+        return rowHeight;
+    }
+
+    /**
+     * Returns the number of rows bound above and below the visible rows.
+     *
+     * @return an <code>int</code> indicating the number of rows bound outside the viewport
+     */
+    public int getOverscan()
+    {
+        return overscan;
+    }
+
+    /**
+     * Sets the number of rows bound above and below the visible rows, so that they are ready when
+     * the list is scrolled by a small amount.
+     *
+     * @param overscan the number of rows bound outside the viewport
+     */
+    public void setOverscan(int overscan)
+    {
+        if(overscan < 0)
+        {
+            throw new IllegalArgumentException("Overscan cannot be negative: " + overscan);
+        }
+        this.overscan = overscan;
+        bindVisibleRows();
+    }
+
+    /**
+     * Returns the item bound to the given row, if the row is bound.
+     *
+     * @param row the index of a row
+     * @return the item bound to the row, or <code>null</code> if the row is not near the viewport
+     */
+    public I getItem(int row)
+    {
+        int index = row - firstBoundRow;
+        if(index < 0 || index >= boundItems.size())
+        {
+            return null;
+        }
+        return boundItems.get(index);
+    }
+
+    /**
+     * Returns the number of rows that are bound to items.
+     *
+     * @return an <code>int</code> indicating the number of bound rows
+     */
+    public int getBoundRowCount()
+    {
+        return boundItems.size();
+    }
+
+    /**
+     * Returns the number of items that have been created for this list, whether they are bound to
+     * a row or waiting to be reused.
+     *
+     * @return an <code>int</code> indicating the number of items created for this list
+     */
+    public int getItemCount()
+    {
+        return boundItems.size() + spareItems.size();
+    }
+
+    /**
+     * Binds the bound rows again, for example when the data shown by the rows has been replaced.
+     */
+    public void rebindRows()
+    {
+        ArrayList<ActiveItem> activeItems = new ArrayList<>();
+        for(int i = 0; i < boundItems.size(); i++)
+        {
+            bind(boundItems.get(i), firstBoundRow + i, activeItems);
+        }
+        if(!activeItems.isEmpty())
+        {
+            ItemController.get().render(activeItems);
+        }
+    }
+
+    /**
+     * Scrolls the list so that the given row can be seen.
+     *
+     * @param row the index of a row
+     */
+    public void scrollToRow(int row)
+    {
+        int height = getRowHeightOrDefault();
+        rows.scrollRectToVisible(new Rectangle(0, row * height, 1, height));
+    }
+
+    /**
+     * Binds items to the rows in and near the viewport, recycling the items of rows that have moved
+     * away from it.
+     */
+    private void bindVisibleRows()
+    {
+        if(isBinding)
+        {
+            return;
+        }
+        isBinding = true;
+        int height = getRowHeightOrDefault();
+        try
+        {
+            Rectangle view = scrollPane.getViewport().getViewRect();
+            int first = Math.max(0, view.y / height - overscan);
+            int last = Math.min(rowCount, (view.y + view.height + height - 1) / height + overscan);
+            if(last <= first || view.height == 0)
+            {
+                first = Math.min(first, rowCount);
+                last = first;
+            }
+            releaseRows(first, last);
+            ArrayList<ActiveItem> activeItems = new ArrayList<>();
+            if(boundItems.isEmpty())
+            {
+                firstBoundRow = first;
+            }
+            while(firstBoundRow > first)
+            {
+                firstBoundRow--;
+                boundItems.add(0, acquire(firstBoundRow, activeItems));
+            }
+            while(firstBoundRow + boundItems.size() < last)
+            {
+                boundItems.add(acquire(firstBoundRow + boundItems.size(), activeItems));
+            }
+            for(int i = 0; i < boundItems.size(); i++)
+            {
+                place(boundItems.get(i), firstBoundRow + i, view.width);
+            }
+            if(!activeItems.isEmpty())
+            {
+                ItemController.get().render(activeItems);
+            }
+        }
+        finally
+        {
+            isBinding = false;
+        }
+        if(height != getRowHeightOrDefault())
+        {
+            rows.revalidate();
+            bindVisibleRows();
+        }
+    }
+
+    /**
+     * Recycles the items of the bound rows that are outside the given range.
+     */
+    private void releaseRows(int first, int last)
+    {
+        while(!boundItems.isEmpty() && (firstBoundRow < first || firstBoundRow >= last))
+        {
+            release(boundItems.remove(0));
+            firstBoundRow++;
+        }
+        while(!boundItems.isEmpty() && firstBoundRow + boundItems.size() > last)
+        {
+            release(boundItems.remove(boundItems.size() - 1));
+        }
+    }
+
+    /**
+     * Takes a spare item, or creates one if there are none, and binds it to the given row.
+     */
+    private I acquire(int row, ArrayList<ActiveItem> activeItems)
+    {
+        I item;
+        if(spareItems.isEmpty())
+        {
+            item = binder.createRow();
+            rows.add(item);
+            Dimension size = item.getPreferredSize();
+            if(rowHeight == 0)
+            {
+                rowHeight = Math.max(1, size.height);
+            }
+            if(size.width > rowWidth)
+            {
+                rowWidth = size.width;
+                scrollPane.revalidate();
+            }
+        }
+        else
+        {
+            item = spareItems.remove(spareItems.size() - 1);
+            item.setVisible(true);
+        }
+        bind(item, row, activeItems);
+        return item;
+    }
+
+    private void bind(I item, int row, ArrayList<ActiveItem> activeItems)
+    {
+        binder.bindRow(item, row);
+        if(item instanceof ActiveItem)
+        {
+            activeItems.add((ActiveItem)item);
+        }
+    }
+
+    /**
+     * Hides an item and unlinks it from its variable until it is bound to another row.
+     */
+    private void release(I item)
+    {
+        if(item instanceof ActiveItem)
+        {
+            ((ActiveItem)item).removeVariable();
+        }
+        item.setVisible(false);
+        spareItems.add(item);
+    }
+
+    private void place(I item, int row, int width)
+    {
+        int y = row * rowHeight;
+        if(item.getY() != y || item.getWidth() != width || item.getHeight() != rowHeight)
+        {
+            item.setBounds(0, y, width, rowHeight);
+            item.validate();
+        }
+    }
+
+    /**
+     * Returns the height of the rows, or the standard item height if no item has been created yet.
+     */
+    private int getRowHeightOrDefault()
+    {
+        return rowHeight > 0 ? rowHeight : Item.componentHeight;
+    }
+
+    /**
+     * Creates the items shown by a <code>VirtualList</code> and binds them to rows.
+     *
+     * @param <I> the type of item shown by the list
+     */
+    public interface RowBinder<I extends Item<?>>
+    {
+        /**
+         * Creates an item that can be bound to any row.
+         *
+         * @return a new item
+         */
+        I createRow();
+
+        /**
+         * Shows the given row with the given item, which may have been showing another row. An
+         * <code>ActiveItem</code> should be linked to the row's variable with <code>setVariable</code>.
+         *
+         * @param item an item created by <code>createRow()</code>
+         * @param row the index of the row to be shown
+         */
+        void bindRow(I item, int row);
+    }
+
+    /**
+     * The component that the row items are placed on. It is as tall as all of the rows and as wide
+     * as the viewport, and scrolls by one row at a time.
+     */
+    private class Rows extends JPanel implements Scrollable
+    {
+        private Rows()
+        {
+            super(null);
+        }
+
+        @Override
+        public Dimension getPreferredSize()
+        {
+            long height = (long)rowCount * getRowHeightOrDefault();
+            return new Dimension(rowWidth, (int)Math.min(height, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize()
+        {
+            return new Dimension(rowWidth, getRowHeightOrDefault() * 10);
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+        {
+            return getRowHeightOrDefault();
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+        {
+            return Math.max(getRowHeightOrDefault(), visibleRect.height - getRowHeightOrDefault());
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight()
+        {
+            return false;
+        }
+    }
+}
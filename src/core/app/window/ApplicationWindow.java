@@ -8,6 +8,8 @@
 
 package core.app.window;
 
+import core.image.ImageFetcher;
+
 import javax.swing.*;
 import java.awt.*;
 
@@ -39,6 +41,8 @@ public class ApplicationWindow extends Window
     public ApplicationWindow(String title)
     {
         super(title);
+        // decode the dialog icons while the rest of the window is built
+        ImageFetcher.get().preload("ICON_64.gif", "ERROR_64.gif", "INFO_64.gif", "WARNING_64.gif", "QUESTION_64.gif");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         instance = this;
         addMenuBar();
@@ -80,7 +80,7 @@ public class Dialog extends JDialog implements Windows
      */
     private void create()
     {
-        setIconImage(toolKit.getImage(ImageFetcher.class.getResource("ICON_16.gif")));
+        setIconImage(ImageFetcher.get().getImage("ICON_16.gif"));
         layouter = new Layouter();
         add(layouter);
         setModal(true);
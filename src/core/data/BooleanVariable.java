@@ -0,0 +1,69 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+/**
+ * A <code>Variables</code> object that stores its value as a <code>boolean</code>. The value can be
+ * set and read with <code>setBoolean</code> and <code>getBoolean</code>, and can be used by
+ * <code>CheckBox</code> and <code>ToggleButton</code> items.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class BooleanVariable extends Variable<Boolean>
+{
+
+    /**
+     * The value represented by this object.
+     */
+    private volatile boolean value;
+
+    /**
+     * Creates a <code>BooleanVariable</code> with the given value.
+     *
+     * @param value the initial value of this variable object
+     */
+    public BooleanVariable(boolean value)
+    {
+        this.value = value;
+    }
+
+    /**
+     * Returns the value of this object.
+     *
+     * @return a <code>boolean</code> indicating the value of this object
+     */
+    public boolean getBoolean()
+    {
+        return value;
+    }
+
+    /**
+     * Sets the value of this object.
+     *
+     * @param value the value of this object
+     */
+    public void setBoolean(boolean value)
+    {
+        this.value = value;
+        propagate();
+    }
+
+    @Override
+    public void setValue(Boolean value)
+    {
+        setBoolean(value);
+    }
+
+    @Override
+    public Boolean getValue()
+    {
+        return value;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+/**
+ * Interface for numeric <code>Variables</code> objects that have a limited range and are rounded
+ * to a number of decimal places.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public interface Bounded<V extends Number> extends Variables<V>, Scaled
+{
+
+    /**
+     * Returns the minimum value that this <code>Variables</code> object can take
+     *
+     * @return the minimum value that this <code>Variables</code> object can take
+     */
+    V getMin();
+
+    /**
+     * Returns the maximum value that this <code>Variables</code> object can take
+     *
+     * @return the maximum value that this <code>Variables</code> object can take
+     */
+    V getMax();
+}
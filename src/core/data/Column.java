@@ -0,0 +1,112 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.Name;
+
+/**
+ * Abstract base class for the columns of a <code>Table</code>. Each subclass stores its values in an
+ * array of primitives, so a column of any length is a single object, and its values can be read and
+ * written without creating any objects.
+ * <p>
+ * Values can be written on any thread. They are shown once the <code>Table</code> has been told
+ * which rows and columns have changed. Values must not be written while the <code>Table</code> is
+ * adding rows with <code>setRowCount</code>: the array of values is copied into a longer one under
+ * a lock that the setters do not take, so a value written during the copy can be lost.
+ * <p>
+ * Values are shown in full unless a scale has been set for the column.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public abstract class Column extends Name
+{
+
+    /**
+     * The number of decimal places that the values of this column are rounded to when they are
+     * displayed, or <code>DecimalFormatter.UNSCALED</code> if they are shown in full.
+     */
+    private volatile int scale = DecimalFormatter.UNSCALED;
+
+    /**
+     * Creates a column with the given name, which is also the name displayed at the top of the column.
+     *
+     * @param name the name of this column
+     */
+    public Column(String name)
+    {
+        super(name, name);
+    }
+
+    /**
+     * Returns the value in the given row as a <code>double</code>.
+     *
+     * @param row the index of the row
+     * @return the value in the given row
+     */
+    public abstract double getDouble(int row);
+
+    /**
+     * Formats the value in the given row with the scale of this column.
+     *
+     * @param row the index of the row
+     * @param formatter the <code>DecimalFormatter</code> that the value is written into
+     * @return <code>true</code> if the characters of the formatter have changed and
+     * <code>false</code> if not
+     */
+    public abstract boolean format(int row, DecimalFormatter formatter);
+
+    /**
+     * Returns the number of rows that this column has room for.
+     *
+     * @return an <code>int</code> indicating the length of the array holding the values
+     */
+    public abstract int getCapacity();
+
+    /**
+     * Makes room for at least the given number of rows, keeping the existing values. Rows are only
+     * ever added, so a row that could be read before this is called can still be read afterwards.
+     *
+     * @param capacity the number of rows that this column must have room for
+     */
+    abstract void ensureCapacity(int capacity);
+
+    /**
+     * Returns the number of decimal places that the values of this column are rounded to when they
+     * are displayed.
+     *
+     * @return an <code>int</code> indicating the number of decimal places, or
+     * <code>DecimalFormatter.UNSCALED</code> if no scale has been set and the values are shown in full
+     */
+    public int getScale()
+    {
+        return scale;
+    }
+
+    /**
+     * Sets the number of decimal places that the values of this column are rounded to when they are
+     * displayed.
+     *
+     * @param scale the number of decimal places, or <code>DecimalFormatter.UNSCALED</code> to show
+     * the values in full
+     */
+    public void setScale(int scale)
+    {
+        this.scale = scale;
+    }
+
+    /**
+     * Returns a capacity of at least the given number of rows, growing by half as much again each
+     * time so that adding rows one at a time does not copy the values every time.
+     */
+    static int grow(int capacity, int required)
+    {
+        return (int)Math.min(Integer.MAX_VALUE - 8, Math.max(required, capacity + (capacity >> 1) + 16L));
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.FixedMaths;
+import core.Maths;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Formats numbers as text with a fixed number of decimal places, writing the characters into a
+ * buffer that is reused, so that formatting a value does not create any objects. Values are rounded
+ * in the same way as <code>Maths.round</code>. Each call to <code>format</code> reports whether the
+ * characters differ from those of the previous call, so callers only need to pass the text on when
+ * it has actually changed.
+ * <p>
+ * A formatter created with a scale of <code>UNSCALED</code> writes whole numbers in full, and
+ * writes floating point numbers as the shortest decimal that reads back as the same number, with
+ * at least one decimal place, which is how <code>String.valueOf</code> writes them in almost every
+ * case. Floating point numbers are written without creating any objects if they are written
+ * without an exponent, which <code>String.valueOf</code> does from 0.001 up to 10,000,000, and if
+ * their digits fit in 53 bits, which covers every number with up to 15 significant digits. Numbers
+ * that need more digits, such as the result of 0.1 + 0.2, or an exponent, as well as infinite values
+ * and values that are not a number, are written using <code>String.valueOf</code>.
+ * <p>
+ * The scale of a variable is only used if it is <code>Scaled</code> and its scale has been set. Any
+ * other variable is written as if it were <code>UNSCALED</code>, so its value is shown in full rather
+ * than rounded to the default scale of 0.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class DecimalFormatter
+{
+    /**
+     * The scale of a formatter that does not round values.
+     */
+    public static final int UNSCALED = Integer.MIN_VALUE;
+
+    /**
+     * The powers of ten that are exactly represented by a <code>double</code>.
+     */
+    private static final double[] DOUBLE_POWERS = new double[23];
+
+    static
+    {
+        DOUBLE_POWERS[0] = 1;
+        for(int i = 1; i < DOUBLE_POWERS.length; i++)
+        {
+            DOUBLE_POWERS[i] = DOUBLE_POWERS[i - 1] * 10;
+        }
+    }
+
+    /**
+     * The magnitude below which every whole number is exactly represented by a <code>double</code>.
+     */
+    private static final double EXACT_LIMIT = 9007199254740992.0;
+
+    /**
+     * The number of decimal places that values are rounded to.
+     */
+    private int scale;
+
+    /**
+     * The characters written by the last call to <code>format</code>.
+     */
+    private char[] chars = new char[24];
+
+    private int length = 0;
+
+    /**
+     * The buffer that the next value is written into before it is compared with <code>chars</code>.
+     */
+    private char[] nextChars = new char[24];
+
+    /**
+     * The text of the current characters, created the first time it is asked for.
+     */
+    private String text = "";
+
+    /**
+     * Creates a <code>DecimalFormatter</code> that rounds values to the given number of decimal places.
+     *
+     * @param scale the number of decimal places that values are rounded to, or <code>UNSCALED</code>
+     */
+    public DecimalFormatter(int scale)
+    {
+        this.scale = scale;
+    }
+
+    /**
+     * Returns the number of decimal places that this formatter rounds values to, as given by the
+     * variable if it has a scale.
+     *
+     * @param variable a <code>Variables</code> object
+     * @return the scale of the variable if it is <code>Scaled</code> and its scale has been set,
+     * and <code>UNSCALED</code> if not
+     */
+    public static int getScale(Variables<?> variable)
+    {
+        if(variable instanceof Scaled && ((Scaled)variable).isScaled())
+        {
+            return ((Scaled)variable).getScale();
+        }
+        return UNSCALED;
+    }
+
+    /**
+     * Formats the value of the given variable using its scale, reading primitive variables without
+     * boxing their values.
+     *
+     * @param variable a <code>Variables</code> object
+     * @return <code>true</code> if the characters have changed and <code>false</code> if not
+     */
+    public boolean format(Variables<?> variable)
+    {
+        scale = getScale(variable);
+        if(variable instanceof DoubleVariable)
+        {
+            return format(((DoubleVariable)variable).getDouble());
+        }
+        if(variable instanceof IntVariable)
+        {
+            return format(((IntVariable)variable).getInt());
+        }
+        if(variable instanceof LongVariable)
+        {
+            return format(((LongVariable)variable).getLong());
+        }
+        if(variable instanceof Aggregate)
+        {
+            return format(((Aggregate)variable).getDouble());
+        }
+        return format(variable.getValue());
+    }
+
+    /**
+     * Formats the given value. Whole numbers and floating point numbers are formatted without creating
+     * any objects, and anything else is formatted using <code>String.valueOf</code>.
+     *
+     * @param value the value to be formatted
+     * @return <code>true</code> if the characters have changed and <code>false</code> if not
+     */
+    public boolean format(Object value)
+    {
+        if(value instanceof Double || value instanceof Float)
+        {
+            return format(((Number)value).doubleValue());
+        }
+        if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+        {
+            return format(((Number)value).longValue());
+        }
+        return write(String.valueOf(value));
+    }
+
+    /**
+     * Formats the given whole number, adding decimal places or rounding it to a power of ten as
+     * required by the scale.
+     *
+     * @param value the value to be formatted
+     * @return <code>true</code> if the characters have changed and <code>false</code> if not
+     */
+    public boolean format(long value)
+    {
+        if(scale == UNSCALED || scale == 0)
+        {
+            return write(value, 0);
+        }
+        if(scale > 0)
+        {
+            if(scale > 18 || Math.abs(value) >= 1000000000000000000L / pow10(scale))
+            {
+                return write(BigDecimal.valueOf(value).setScale(scale).toPlainString());
+            }
+            return write(value * pow10(scale), scale);
+        }
+        return format((double)value);
+    }
+
+    /**
+     * Formats the given floating point number, rounding it to the scale, or writing the shortest
+     * decimal that reads back as the same number if the scale is <code>UNSCALED</code>.
+     *
+     * @param value the value to be formatted
+     * @return <code>true</code> if the characters have changed and <code>false</code> if not
+     */
+    public boolean format(double value)
+    {
+        if(Double.isNaN(value) || Double.isInfinite(value))
+        {
+            return write(String.valueOf(value));
+        }
+        if(scale == UNSCALED)
+        {
+            return writeShortest(value);
+        }
+        long unscaled;
+        try
+        {
+            unscaled = FixedMaths.toUnscaled(value, scale);
+        }
+        catch (ArithmeticException e)
+        {
+            return write(Maths.wrap(value).setScale(scale, RoundingMode.HALF_EVEN).toPlainString());
+        }
+        return write(unscaled, scale);
+    }
+
+    /**
+     * Returns the buffer holding the current characters. Only the first <code>getLength()</code>
+     * characters are valid, and the buffer must not be changed.
+     *
+     * @return the buffer holding the current characters
+     */
+    public char[] getChars()
+    {
+        return chars;
+    }
+
+    /**
+     * Returns the number of current characters.
+     *
+     * @return an <code>int</code> indicating the number of current characters
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Returns the number of decimal places that values are rounded to.
+     *
+     * @return an <code>int</code> indicating the number of decimal places, or <code>UNSCALED</code>
+     */
+    public int getScale()
+    {
+        return scale;
+    }
+
+    /**
+     * Sets the number of decimal places that values are rounded to.
+     *
+     * @param scale the number of decimal places that values are rounded to, or <code>UNSCALED</code>
+     */
+    public void setScale(int scale)
+    {
+        this.scale = scale;
+    }
+
+    /**
+     * Returns the current characters as a <code>String</code>. A new <code>String</code> is only
+     * created when the characters have changed since this was last called.
+     *
+     * @return the current characters
+     */
+    @Override
+    public String toString()
+    {
+        if(text == null)
+        {
+            text = new String(chars, 0, length);
+        }
+        return text;
+    }
+
+    /**
+     * Writes the digits of an unscaled value with a decimal point placed the given number of digits
+     * from the right, or with the given number of zeros added if the scale is negative.
+     */
+    private boolean write(long unscaled, int scale)
+    {
+        int digits = 1;
+        for(long rest = unscaled / 10; rest != 0; rest /= 10)
+        {
+            digits++;
+        }
+        boolean isNegative = unscaled < 0;
+        int zeros = scale < 0 && unscaled != 0 ? -scale : 0;
+        int fraction = Math.max(scale, 0);
+        int whole = Math.max(digits - fraction, 1);
+        int nextLength = (isNegative ? 1 : 0) + whole + (fraction > 0 ? fraction + 1 : 0) + zeros;
+        if(nextChars.length < nextLength)
+        {
+            nextChars = new char[nextLength];
+        }
+        int position = nextLength;
+        for(int i = 0; i < zeros; i++)
+        {
+            nextChars[--position] = '0';
+        }
+        long rest = unscaled;
+        for(int i = 0; i < fraction; i++)
+        {
+            nextChars[--position] = (char)('0' + Math.abs(rest % 10));
+            rest /= 10;
+        }
+        if(fraction > 0)
+        {
+            nextChars[--position] = '.';
+        }
+        do
+        {
+            nextChars[--position] = (char)('0' + Math.abs(rest % 10));
+            rest /= 10;
+        }
+        while(rest != 0);
+        if(isNegative)
+        {
+            nextChars[--position] = '-';
+        }
+        return swap(nextLength);
+    }
+
+    /**
+     * Writes the shortest decimal with at least one decimal place that reads back as the given
+     * finite value. Each number of decimal places is tried in turn, and the value rounded to it is
+     * checked by dividing it by the power of ten, which gives the nearest <code>double</code> to the
+     * decimal because both are exactly represented. Values that <code>String.valueOf</code> writes
+     * with an exponent, and values whose digits do not fit in 53 bits, are written using
+     * <code>String.valueOf</code>.
+     */
+    private boolean writeShortest(double value)
+    {
+        if(value == 0)
+        {
+            return write(1 / value < 0 ? "-0.0" : "0.0");
+        }
+        double magnitude = Math.abs(value);
+        if(magnitude >= 1e-3 && magnitude < 1e7)
+        {
+            for(int places = 1; places < DOUBLE_POWERS.length; places++)
+            {
+                double unscaled = Math.rint(value * DOUBLE_POWERS[places]);
+                if(Math.abs(unscaled) >= EXACT_LIMIT)
+                {
+                    break;
+                }
+                if(unscaled / DOUBLE_POWERS[places] == value)
+                {
+                    return write((long)unscaled, places);
+                }
+            }
+        }
+        return write(String.valueOf(value));
+    }
+
+    /**
+     * Writes the characters of the given <code>String</code>.
+     */
+    private boolean write(String string)
+    {
+        int nextLength = string.length();
+        if(nextChars.length < nextLength)
+        {
+            nextChars = new char[nextLength];
+        }
+        string.getChars(0, nextLength, nextChars, 0);
+        return swap(nextLength);
+    }
+
+    /**
+     * Makes the characters just written the current characters if they differ from them.
+     */
+    private boolean swap(int nextLength)
+    {
+        if(nextLength == length)
+        {
+            boolean isSame = true;
+            for(int i = 0; i < length && isSame; i++)
+            {
+                isSame = chars[i] == nextChars[i];
+            }
+            if(isSame)
+            {
+                return false;
+            }
+        }
+        char[] previous = chars;
+        chars = nextChars;
+        nextChars = previous;
+        length = nextLength;
+        text = null;
+        return true;
+    }
+
+    private static long pow10(int exponent)
+    {
+        long power = 1;
+        for(int i = 0; i < exponent; i++)
+        {
+            power *= 10;
+        }
+        return power;
+    }
+}
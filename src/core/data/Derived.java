@@ -0,0 +1,259 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.Updater;
+import core.Updating;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A <code>Variables</code> object whose value is computed from the values of other variables by a
+ * function, such as a sum, a ratio or a value converted to other units. The function must only read
+ * the values of the inputs and must not change anything.
+ * <p>
+ * The value is computed when it is first read and is then kept until one of the inputs changes,
+ * so a derived variable that nothing reads costs nothing however often its inputs change. Whether
+ * an input has changed is found by comparing its version with the version it had when the value
+ * was computed, so a value read straight after an input has been changed is computed again on the
+ * thread that reads it, even if the change is only propagated later, for example on the event
+ * dispatch thread. Inputs that are not <code>Variable</code>s only make the value stale once the
+ * change to them has been propagated.
+ * <p>
+ * Once objects have been linked to a derived variable, for example a <code>Meter</code> that shows
+ * it, the value is computed again as soon as a change to an input is propagated, and the linked
+ * objects are only updated if the value is different from the one they were last given. Because a
+ * derived variable is linked to its inputs by the <code>Updater</code>, it is updated after all of
+ * them in each epoch, and derived variables can be computed from other derived variables.
+ * <p>
+ * The value cannot be set.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class Derived<V> extends Variable<V> implements Scaled
+{
+
+    private final List<Variables<?>> inputs;
+
+    private final Supplier<V> function;
+
+    /**
+     * The value last computed.
+     */
+    private V value = null;
+
+    /**
+     * Indicates whether or not an input that has no version has changed since the value was last
+     * computed, or the value has never been computed.
+     */
+    private boolean isStale = true;
+
+    /**
+     * The version of each input when the value was last computed.
+     */
+    private final long[] inputVersions;
+
+    /**
+     * The version of this variable when its value was last passed on to the linked objects.
+     */
+    private long propagatedVersion = -1;
+
+    /**
+     * The number of times the value has been computed.
+     */
+    private long computeCount = 0;
+
+    /**
+     * The number of decimal places that this variable is rounded to when it is displayed.
+     */
+    private int scale = DecimalFormatter.UNSCALED;
+
+    /**
+     * Creates a variable whose value is computed from the given inputs by the given function.
+     *
+     * @param function a <code>Supplier</code> that computes the value from the values of the inputs
+     * @param inputs the <code>Variables</code> objects that the function reads
+     */
+    public Derived(Supplier<V> function, Variables<?>... inputs)
+    {
+        this.function = function;
+        this.inputs = Collections.unmodifiableList(Arrays.asList(inputs.clone()));
+        inputVersions = new long[inputs.length];
+        for(Variables<?> input : inputs)
+        {
+            Updater.get().addChild(input, this);
+        }
+    }
+
+    /**
+     * Returns the value, computing it first if an input has changed since it was last computed.
+     *
+     * @return the value computed from the inputs
+     */
+    @Override
+    public synchronized V getValue()
+    {
+        if(isStale())
+        {
+            compute();
+        }
+        return value;
+    }
+
+    /**
+     * The value of a derived variable cannot be set.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setValue(V value)
+    {
+        throw new UnsupportedOperationException("The value of " + getName() + " is derived from its inputs");
+    }
+
+    /**
+     * Returns the variables that the value is computed from.
+     *
+     * @return a <code>List</code> of the inputs, which cannot be changed
+     */
+    public List<Variables<?>> getInputs()
+    {
+        return inputs;
+    }
+
+    /**
+     * Indicates whether or not an input has changed since the value was last computed.
+     *
+     * @return <code>true</code> if the value will be computed when it is next read and
+     * <code>false</code> if not
+     */
+    public synchronized boolean isStale()
+    {
+        if(isStale)
+        {
+            return true;
+        }
+        for(int i = 0; i < inputVersions.length; i++)
+        {
+            Variables<?> input = inputs.get(i);
+            if(input instanceof Derived && ((Derived<?>)input).isStale())
+            {
+                return true;
+            }
+            if(input instanceof Variable && ((Variable<?>)input).getVersion() != inputVersions[i])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of times the value has been computed.
+     *
+     * @return a <code>long</code> indicating the number of times the value has been computed
+     */
+    public synchronized long getComputeCount()
+    {
+        return computeCount;
+    }
+
+    @Override
+    public int getScale()
+    {
+        return scale;
+    }
+
+    @Override
+    public boolean isScaled()
+    {
+        return scale != DecimalFormatter.UNSCALED;
+    }
+
+    /**
+     * Sets the number of decimal places that this variable is rounded to when it is displayed.
+     *
+     * @param scale the number of decimal places, or <code>DecimalFormatter.UNSCALED</code> if the
+     * value is not to be rounded
+     */
+    public void setScale(int scale)
+    {
+        this.scale = scale;
+    }
+
+    /**
+     * Marks the value as stale when an input changes. If objects are linked to this variable, the
+     * value is computed straight away instead, unless it has already been computed since the
+     * change, and the change is passed on to them only if the value is different from the one
+     * they were last given.
+     *
+     * @param parent the input that has changed
+     */
+    @Override
+    public void update(Updating parent)
+    {
+        synchronized(this)
+        {
+            if(!(parent instanceof Variable))
+            {
+                isStale = true;
+            }
+            if(!Updater.get().hasParent(this))
+            {
+                return;
+            }
+            if(isStale())
+            {
+                compute();
+            }
+            if(getVersion() == propagatedVersion)
+            {
+                return;
+            }
+            propagatedVersion = getVersion();
+        }
+        Updater.get().update(this);
+    }
+
+    /**
+     * Computes the value, recording the version of each input first so that a change made to an
+     * input while the value is computed makes it stale again. Inputs that are derived variables are
+     * brought up to date before their versions are recorded. The version of this variable is changed
+     * if the value is different.
+     */
+    private void compute()
+    {
+        for(int i = 0; i < inputVersions.length; i++)
+        {
+            Variables<?> input = inputs.get(i);
+            if(input instanceof Derived)
+            {
+                input.getValue();
+            }
+            if(input instanceof Variable)
+            {
+                inputVersions[i] = ((Variable<?>)input).getVersion();
+            }
+        }
+        V previous = value;
+        boolean wasComputed = computeCount > 0;
+        value = function.get();
+        isStale = false;
+        computeCount++;
+        if(!wasComputed || !Objects.equals(previous, value))
+        {
+            changeVersion();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+/**
+ * A <code>Variables</code> object that stores its value as a <code>double</code>. The value can be
+ * set and read with <code>setDouble</code> and <code>getDouble</code> without creating a
+ * <code>Double</code>, so it is suited to values that change often, such as readings from a
+ * telemetry feed.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class DoubleVariable extends Variable<Double> implements Bounded<Double>
+{
+
+    /**
+     * The value represented by this object.
+     */
+    private volatile double value;
+
+    /**
+     * The minimum value that this <code>Variables</code> object can take
+     */
+    private double min;
+
+    /**
+     * The maximum value that this <code>Variables</code> object can take
+     */
+    private double max;
+
+    /**
+     * The number of decimal places that this variable is rounded to when it is displayed.
+     */
+    private int scale = 0;
+
+    /**
+     * Indicates whether or not the scale has been set.
+     */
+    private boolean isScaled = false;
+
+    /**
+     * Creates a <code>DoubleVariable</code> with the given value and no limits.
+     *
+     * @param value the initial value of this variable object
+     */
+    public DoubleVariable(double value)
+    {
+        this(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, value);
+    }
+
+    /**
+     * Creates a <code>DoubleVariable</code> that has a limited range.
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     * @param max the maximum value that this <code>Variables</code> object can take
+     * @param value the initial value of this variable object
+     */
+    public DoubleVariable(double min, double max, double value)
+    {
+        this.min = min;
+        this.max = max;
+        this.value = constrain(value);
+    }
+
+    /**
+     * Returns the value of this object.
+     *
+     * @return a <code>double</code> indicating the value of this object
+     */
+    public double getDouble()
+    {
+        return value;
+    }
+
+    /**
+     * Sets the value of this object, changing it to the nearest allowable value if it is out of range.
+     *
+     * @param value the value of this object
+     */
+    public void setDouble(double value)
+    {
+        this.value = constrain(value);
+        propagate();
+    }
+
+    @Override
+    public void setValue(Double value)
+    {
+        setDouble(value);
+    }
+
+    @Override
+    public Double getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Checks if the value is within the range set by this object and changes it to the nearest
+     * allowable value if it isn't. <code>NaN</code> is left unchanged.
+     *
+     * @param value the value to be checked
+     * @return the nearest allowable value to the given value
+     */
+    public double constrain(double value)
+    {
+        if(value < min)
+        {
+            return min;
+        }
+        if(value > max)
+        {
+            return max;
+        }
+        return value;
+    }
+
+    @Override
+    public Double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Sets the minimum value that this <code>Variables</code> object can take
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     */
+    public void setMin(double min)
+    {
+        this.min = min;
+    }
+
+    @Override
+    public Double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Sets the maximum value that this <code>Variables</code> object can take
+     *
+     * @param max the maximum value that this <code>Variables</code> object can take
+     */
+    public void setMax(double max)
+    {
+        this.max = max;
+    }
+
+    @Override
+    public int getScale()
+    {
+        return scale;
+    }
+
+    /**
+     * Sets the number of decimal places that this variable is rounded to when it is displayed.
+     *
+     * @param scale the number of decimal places that this variable is rounded to
+     */
+    public void setScale(int scale)
+    {
+        this.scale = scale;
+        isScaled = true;
+    }
+
+    @Override
+    public boolean isScaled()
+    {
+        return isScaled;
+    }
+}
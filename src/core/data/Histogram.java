@@ -0,0 +1,495 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.Name;
+import core.Updater;
+import core.Updating;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of samples, such as latencies, that arrive too quickly for each one to be shown,
+ * from which quantiles such as the median and the 99th percentile are read. The samples are
+ * counted in a fixed number of buckets, so the memory used does not grow with the number of
+ * samples, and recording a sample only increments a few counters and does not create any objects.
+ * <p>
+ * The buckets are spaced as in an HDR histogram. Values are counted in units of the resolution
+ * given to the histogram, and each power of two is divided into the same number of buckets, so
+ * every value is counted to the given number of significant decimal digits from the resolution up
+ * to the highest value. Values below 0 are counted as 0, and values above the highest value are
+ * counted as the highest value.
+ * <p>
+ * The count, the mean and any number of quantiles can be read from variables that can be shown by
+ * a <code>Meter</code>. Rather than changing them on every sample, the histogram publishes them at
+ * most once per interval, and only if samples have been recorded since they were last published.
+ * They are published in a single batch by a daemon thread shared by every histogram, and the
+ * change is then also passed on to the objects linked to the histogram itself. Samples can be
+ * recorded from any number of threads.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class Histogram extends Name implements Updating
+{
+    /**
+     * The time between publications of the readouts, in milliseconds, if no other time is given.
+     */
+    public static final long DEFAULT_INTERVAL = 250;
+
+    /**
+     * The thread that publishes the readouts of every histogram.
+     */
+    private static final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable ->
+    {
+        Thread thread = new Thread(runnable, "Histogram publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final double resolution;
+
+    private final double highest;
+
+    /**
+     * The number of buckets that each power of two is divided into, which is a power of two. Values
+     * below this number of units each have a bucket of their own.
+     */
+    private final int subBucketCount;
+
+    /**
+     * The base 2 logarithm of <code>subBucketCount</code>.
+     */
+    private final int subBucketBits;
+
+    /**
+     * The highest value that can be counted, in units of the resolution.
+     */
+    private final long highestUnits;
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The sum of the samples, in units of the resolution, modulo 2<sup>64</sup>. It is read as an
+     * unsigned number, and <code>sumCarries</code> counts the times that it has wrapped around, so
+     * the sum is exact however many samples are recorded.
+     */
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * The number of times that <code>sum</code> has wrapped around.
+     */
+    private final AtomicLong sumCarries = new AtomicLong();
+
+    /**
+     * The number of samples that had been recorded when the readouts were last published.
+     */
+    private long publishedCount = 0;
+
+    private final LongVariable countReadout = new LongVariable(0);
+
+    private final DoubleVariable meanReadout = new DoubleVariable(Double.NaN);
+
+    /**
+     * The readouts of quantiles, in order of their quantiles.
+     */
+    private final CopyOnWriteArrayList<Quantile> quantiles = new CopyOnWriteArrayList<>();
+
+    private final ScheduledFuture<?> publication;
+
+    /**
+     * Creates a histogram that publishes its readouts every <code>DEFAULT_INTERVAL</code>
+     * milliseconds.
+     *
+     * @param name the name of this histogram, which the names of its readouts start with
+     * @param resolution the smallest difference between values that is counted
+     * @param highest the highest value that is counted
+     * @param significantDigits the number of significant decimal digits that values are counted
+     * to, from 1 to 5
+     */
+    public Histogram(String name, double resolution, double highest, int significantDigits)
+    {
+        this(name, resolution, highest, significantDigits, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a histogram that publishes its readouts at the given interval.
+     *
+     * @param name the name of this histogram, which the names of its readouts start with
+     * @param resolution the smallest difference between values that is counted
+     * @param highest the highest value that is counted
+     * @param significantDigits the number of significant decimal digits that values are counted
+     * to, from 1 to 5
+     * @param interval the time between publications of the readouts, in milliseconds
+     */
+    public Histogram(String name, double resolution, double highest, int significantDigits, long interval)
+    {
+        super(name, name);
+        if(!(resolution > 0) || !(highest >= resolution) || significantDigits < 1 || significantDigits > 5 || interval <= 0)
+        {
+            throw new IllegalArgumentException("Invalid histogram " + name + ": resolution " + resolution + ", highest "
+                + highest + ", significant digits " + significantDigits + ", interval " + interval);
+        }
+        this.resolution = resolution;
+        this.highest = highest;
+        subBucketBits = 64 - Long.numberOfLeadingZeros(2 * (long)Math.pow(10, significantDigits) - 1);
+        subBucketCount = 1 << subBucketBits;
+        highestUnits = (long)Math.min(Long.MAX_VALUE / 2, Math.ceil(highest / resolution));
+        counts = new AtomicLongArray(getIndex(highestUnits) + 1);
+        countReadout.setName(name + " count");
+        countReadout.setDisplayName(name + " count");
+        meanReadout.setName(name + " mean");
+        meanReadout.setDisplayName(name + " mean");
+        Publication task = new Publication(this);
+        publication = publisher.scheduleWithFixedDelay(task, interval, interval, TimeUnit.MILLISECONDS);
+        task.future = publication;
+    }
+
+    /**
+     * Records a sample.
+     *
+     * @param value the value of the sample
+     */
+    public void record(double value)
+    {
+        long units = value > 0 ? (long)Math.min(value / resolution, highestUnits) : 0;
+        counts.incrementAndGet(getIndex(units));
+        if(Long.compareUnsigned(sum.addAndGet(units), units) < 0)
+        {
+            sumCarries.incrementAndGet();
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Records a sample.
+     *
+     * @param value the value of the sample
+     */
+    public void record(long value)
+    {
+        record((double)value);
+    }
+
+    /**
+     * Returns the number of samples recorded.
+     *
+     * @return a <code>long</code> indicating the number of samples recorded
+     */
+    public long getTotalCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * Returns the mean of the samples recorded, to the resolution of this histogram.
+     *
+     * @return a <code>double</code> indicating the mean, or <code>NaN</code> if no samples have
+     * been recorded
+     */
+    public double getMeanValue()
+    {
+        long count = this.count.get();
+        if(count == 0)
+        {
+            return Double.NaN;
+        }
+        long low = sum.get();
+        double units = sumCarries.get() * 0x1p64 + (low >= 0 ? low : (low >>> 1) * 2.0 + (low & 1));
+        return units * resolution / count;
+    }
+
+    /**
+     * Returns the value below which the given fraction of the samples lie. This reads every bucket,
+     * so readouts should be read from the variables returned by <code>getQuantile</code>.
+     *
+     * @param quantile the fraction of the samples, from 0 to 1
+     * @return a <code>double</code> indicating the value at the quantile, or <code>NaN</code> if no
+     * samples have been recorded
+     */
+    public double getValueAtQuantile(double quantile)
+    {
+        double[] values = new double[1];
+        getValuesAtQuantiles(new double[]{quantile}, values);
+        return values[0];
+    }
+
+    /**
+     * Returns the highest value that is counted.
+     *
+     * @return a <code>double</code> indicating the highest value that is counted
+     */
+    public double getHighest()
+    {
+        return highest;
+    }
+
+    /**
+     * Returns the smallest difference between values that is counted.
+     *
+     * @return a <code>double</code> indicating the resolution of this histogram
+     */
+    public double getResolution()
+    {
+        return resolution;
+    }
+
+    /**
+     * Returns the number of buckets that the samples are counted in.
+     *
+     * @return an <code>int</code> indicating the number of buckets
+     */
+    public int getBucketCount()
+    {
+        return counts.length();
+    }
+
+    /**
+     * Removes every sample. The readouts are published again at the next interval.
+     */
+    public synchronized void reset()
+    {
+        for(int i = 0; i < counts.length(); i++)
+        {
+            counts.set(i, 0);
+        }
+        sum.set(0);
+        sumCarries.set(0);
+        count.set(0);
+        publishedCount = -1;
+    }
+
+    /**
+     * Returns the variable that holds the number of samples recorded.
+     *
+     * @return a <code>LongVariable</code> holding the count
+     */
+    public LongVariable getCount()
+    {
+        return countReadout;
+    }
+
+    /**
+     * Returns the variable that holds the mean of the samples recorded.
+     *
+     * @return a <code>DoubleVariable</code> holding the mean, which is <code>NaN</code> until a
+     * sample has been recorded
+     */
+    public DoubleVariable getMean()
+    {
+        return meanReadout;
+    }
+
+    /**
+     * Returns the variable that holds the value below which the given fraction of the samples lie,
+     * creating it the first time it is asked for. Its name is the name of this histogram followed
+     * by the percentile, for example "p99".
+     *
+     * @param quantile the fraction of the samples, from 0 to 1
+     * @return a <code>DoubleVariable</code> holding the value at the quantile, which is
+     * <code>NaN</code> until a sample has been recorded
+     */
+    public synchronized DoubleVariable getQuantile(double quantile)
+    {
+        if(!(quantile >= 0 && quantile <= 1))
+        {
+            throw new IllegalArgumentException("Quantile must be from 0 to 1: " + quantile);
+        }
+        int position = 0;
+        for(Quantile readout : quantiles)
+        {
+            if(readout.quantile == quantile)
+            {
+                return readout.variable;
+            }
+            if(readout.quantile < quantile)
+            {
+                position++;
+            }
+        }
+        Quantile readout = new Quantile(quantile);
+        String percentile = BigDecimal.valueOf(quantile * 100).stripTrailingZeros().toPlainString();
+        readout.variable.setName(getName() + " p" + percentile);
+        readout.variable.setDisplayName(getName() + " p" + percentile);
+        if(publishedCount > 0)
+        {
+            readout.variable.setDouble(getValueAtQuantile(quantile));
+        }
+        quantiles.add(position, readout);
+        return readout.variable;
+    }
+
+    /**
+     * Publishes the readouts straight away if samples have been recorded since they were last
+     * published, rather than waiting for the next interval.
+     */
+    public synchronized void publish()
+    {
+        long count = this.count.get();
+        if(count == publishedCount)
+        {
+            return;
+        }
+        publishedCount = count;
+        double[] fractions = new double[quantiles.size()];
+        for(int i = 0; i < fractions.length; i++)
+        {
+            fractions[i] = quantiles.get(i).quantile;
+        }
+        double[] values = new double[fractions.length];
+        getValuesAtQuantiles(fractions, values);
+        double mean = getMeanValue();
+        Updater.get().runBatched(() ->
+        {
+            countReadout.setLong(count);
+            meanReadout.setDouble(mean);
+            for(int i = 0; i < values.length; i++)
+            {
+                quantiles.get(i).variable.setDouble(values[i]);
+            }
+            Updater.get().update(this);
+        });
+    }
+
+    /**
+     * Stops publishing the readouts at intervals. They can still be published with
+     * <code>publish()</code>.
+     */
+    public void stop()
+    {
+        publication.cancel(false);
+    }
+
+    @Override
+    public void update(Updating parent)
+    {
+        // A histogram only implements Updating so that its readouts can be linked to it as a parent
+    }
+
+    /**
+     * Finds the values at the given quantiles, which must be in order, in a single pass over the
+     * buckets. The number of samples is taken from the buckets themselves, so samples recorded
+     * during the pass do not put a quantile beyond the last bucket.
+     */
+    private void getValuesAtQuantiles(double[] quantiles, double[] values)
+    {
+        long total = 0;
+        for(int i = 0; i < counts.length(); i++)
+        {
+            total += counts.get(i);
+        }
+        if(total == 0)
+        {
+            Arrays.fill(values, Double.NaN);
+            return;
+        }
+        long cumulative = 0;
+        int bucket = -1;
+        for(int index = 0; index < quantiles.length; index++)
+        {
+            long rank = Math.max(1, (long)Math.ceil(quantiles[index] * total));
+            while(cumulative < rank && bucket < counts.length() - 1)
+            {
+                cumulative += counts.get(++bucket);
+            }
+            values[index] = getBucketValue(bucket) * resolution;
+        }
+    }
+
+    /**
+     * Returns the index of the bucket that counts the given number of units.
+     */
+    int getIndex(long units)
+    {
+        if(units < subBucketCount)
+        {
+            return (int)units;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(units) - (subBucketBits - 1);
+        int half = subBucketCount / 2;
+        return subBucketCount + (shift - 1) * half + (int)(units >> shift) - half;
+    }
+
+    /**
+     * Returns the value in the middle of the given bucket, in units.
+     */
+    double getBucketValue(int index)
+    {
+        if(index < subBucketCount)
+        {
+            return index;
+        }
+        int half = subBucketCount / 2;
+        int shift = (index - subBucketCount) / half + 1;
+        long low = (long)((index - subBucketCount) % half + half) << shift;
+        return low + ((1L << shift) - 1) / 2.0;
+    }
+
+    /**
+     * A readout of the value at a quantile.
+     */
+    private static class Quantile
+    {
+        private final double quantile;
+
+        private final DoubleVariable variable = new DoubleVariable(Double.NaN);
+
+        private Quantile(double quantile)
+        {
+            this.quantile = quantile;
+        }
+    }
+
+    /**
+     * Publishes the readouts of a histogram at intervals. The histogram is only weakly referenced,
+     * so a histogram that is no longer used can be garbage collected, after which the publication
+     * cancels itself.
+     */
+    private static class Publication implements Runnable
+    {
+        private final WeakReference<Histogram> histogram;
+
+        /**
+         * The scheduled run of this publication, which is set as soon as it has been scheduled.
+         */
+        private volatile ScheduledFuture<?> future;
+
+        private Publication(Histogram histogram)
+        {
+            this.histogram = new WeakReference<>(histogram);
+        }
+
+        @Override
+        public void run()
+        {
+            Histogram histogram = this.histogram.get();
+            if(histogram == null)
+            {
+                ScheduledFuture<?> future = this.future;
+                if(future != null)
+                {
+                    future.cancel(false);
+                }
+                return;
+            }
+            histogram.publish();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import java.util.Arrays;
+
+/**
+ * A <code>Column</code> that stores its values in an array of <code>int</code>s.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class IntColumn extends Column
+{
+
+    /**
+     * The values of this column. The array is replaced by a longer copy when rows are added.
+     */
+    private volatile int[] values;
+
+    /**
+     * Creates an empty column with the given name.
+     *
+     * @param name the name of this column
+     */
+    public IntColumn(String name)
+    {
+        this(name, 0);
+    }
+
+    /**
+     * Creates a column with the given name that has room for the given number of rows.
+     *
+     * @param name the name of this column
+     * @param capacity the number of rows that this column has room for
+     */
+    public IntColumn(String name, int capacity)
+    {
+        super(name);
+        values = new int[capacity];
+    }
+
+    /**
+     * Returns the value in the given row.
+     *
+     * @param row the index of the row
+     * @return a <code>int</code> indicating the value in the given row
+     */
+    public int getInt(int row)
+    {
+        return values[row];
+    }
+
+    /**
+     * Sets the value in the given row. This must not be called while the table is making room for
+     * new rows with <code>Table.setRowCount</code>, as the value can be lost.
+     *
+     * @param row the index of the row
+     * @param value the value in the given row
+     */
+    public void setInt(int row, int value)
+    {
+        values[row] = value;
+    }
+
+    /**
+     * Copies values from the given array into consecutive rows of this column. This must not be
+     * called while the table is making room for new rows with <code>Table.setRowCount</code>, as
+     * the values can be lost.
+     *
+     * @param firstRow the index of the first row to be set
+     * @param source the array holding the values
+     * @param offset the index in the array of the first value
+     * @param length the number of values to be copied
+     */
+    public void setInts(int firstRow, int[] source, int offset, int length)
+    {
+        System.arraycopy(source, offset, values, firstRow, length);
+    }
+
+    /**
+     * Sets every row in the given range to the same value. This must not be called while the table
+     * is making room for new rows with <code>Table.setRowCount</code>, as the values can be lost.
+     *
+     * @param firstRow the index of the first row to be set
+     * @param lastRow the index after the last row to be set
+     * @param value the value of the rows
+     */
+    public void fill(int firstRow, int lastRow, int value)
+    {
+        Arrays.fill(values, firstRow, lastRow, value);
+    }
+
+    @Override
+    public double getDouble(int row)
+    {
+        return values[row];
+    }
+
+    @Override
+    public boolean format(int row, DecimalFormatter formatter)
+    {
+        formatter.setScale(getScale());
+        return formatter.format((long)values[row]);
+    }
+
+    @Override
+    public int getCapacity()
+    {
+        return values.length;
+    }
+
+    @Override
+    synchronized void ensureCapacity(int capacity)
+    {
+        if(capacity > values.length)
+        {
+            values = Arrays.copyOf(values, grow(values.length, capacity));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+/**
+ * A <code>Variables</code> object that stores its value as an <code>int</code>. The value can be
+ * set and read with <code>setInt</code> and <code>getInt</code> without creating an
+ * <code>Integer</code>, so it is suited to values that change often. The generic
+ * <code>setValue</code> and <code>getValue</code> methods are still available so that the
+ * variable can be used by any item.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class IntVariable extends Variable<Integer> implements Bounded<Integer>
+{
+
+    /**
+     * The value represented by this object.
+     */
+    private volatile int value;
+
+    /**
+     * The minimum value that this <code>Variables</code> object can take
+     */
+    private int min;
+
+    /**
+     * The maximum value that this <code>Variables</code> object can take
+     */
+    private int max;
+
+    /**
+     * Creates an <code>IntVariable</code> with the given value and no limits.
+     *
+     * @param value the initial value of this variable object
+     */
+    public IntVariable(int value)
+    {
+        this(Integer.MIN_VALUE, Integer.MAX_VALUE, value);
+    }
+
+    /**
+     * Creates an <code>IntVariable</code> that has a limited range.
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     * @param max the maximum value that this <code>Variables</code> object can take
+     * @param value the initial value of this variable object
+     */
+    public IntVariable(int min, int max, int value)
+    {
+        this.min = min;
+        this.max = max;
+        this.value = constrain(value);
+    }
+
+    /**
+     * Returns the value of this object.
+     *
+     * @return an <code>int</code> indicating the value of this object
+     */
+    public int getInt()
+    {
+        return value;
+    }
+
+    /**
+     * Sets the value of this object, changing it to the nearest allowable value if it is out of range.
+     *
+     * @param value the value of this object
+     */
+    public void setInt(int value)
+    {
+        this.value = constrain(value);
+        propagate();
+    }
+
+    @Override
+    public void setValue(Integer value)
+    {
+        setInt(value);
+    }
+
+    @Override
+    public Integer getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Checks if the value is within the range set by this object and changes it to the nearest
+     * allowable value if it isn't.
+     *
+     * @param value the value to be checked
+     * @return the nearest allowable value to the given value
+     */
+    public int constrain(int value)
+    {
+        if(value < min)
+        {
+            return min;
+        }
+        if(value > max)
+        {
+            return max;
+        }
+        return value;
+    }
+
+    @Override
+    public Integer getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Sets the minimum value that this <code>Variables</code> object can take
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     */
+    public void setMin(int min)
+    {
+        this.min = min;
+    }
+
+    @Override
+    public Integer getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Sets the maximum value that this <code>Variables</code> object can take
+     *
+     * @param max the maximum value that this <code>Variables</code> object can take
+     */
+    public void setMax(int max)
+    {
+        this.max = max;
+    }
+
+    /**
+     * Returns 0, as an <code>int</code> has no decimal places.
+     *
+     * @return 0
+     */
+    @Override
+    public int getScale()
+    {
+        return 0;
+    }
+
+    /**
+     * The scale of a whole number is always 0, which displays it in full.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean isScaled()
+    {
+        return true;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+/**
+ * A <code>Variables</code> object that stores its value as a <code>long</code>. The value can be
+ * set and read with <code>setLong</code> and <code>getLong</code> without creating a
+ * <code>Long</code>, so it is suited to values that change often, such as counters and times.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class LongVariable extends Variable<Long> implements Bounded<Long>
+{
+
+    /**
+     * The value represented by this object.
+     */
+    private volatile long value;
+
+    /**
+     * The minimum value that this <code>Variables</code> object can take
+     */
+    private long min;
+
+    /**
+     * The maximum value that this <code>Variables</code> object can take
+     */
+    private long max;
+
+    /**
+     * Creates a <code>LongVariable</code> with the given value and no limits.
+     *
+     * @param value the initial value of this variable object
+     */
+    public LongVariable(long value)
+    {
+        this(Long.MIN_VALUE, Long.MAX_VALUE, value);
+    }
+
+    /**
+     * Creates a <code>LongVariable</code> that has a limited range.
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     * @param max the maximum value that this <code>Variables</code> object can take
+     * @param value the initial value of this variable object
+     */
+    public LongVariable(long min, long max, long value)
+    {
+        this.min = min;
+        this.max = max;
+        this.value = constrain(value);
+    }
+
+    /**
+     * Returns the value of this object.
+     *
+     * @return a <code>long</code> indicating the value of this object
+     */
+    public long getLong()
+    {
+        return value;
+    }
+
+    /**
+     * Sets the value of this object, changing it to the nearest allowable value if it is out of range.
+     *
+     * @param value the value of this object
+     */
+    public void setLong(long value)
+    {
+        this.value = constrain(value);
+        propagate();
+    }
+
+    @Override
+    public void setValue(Long value)
+    {
+        setLong(value);
+    }
+
+    @Override
+    public Long getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Checks if the value is within the range set by this object and changes it to the nearest
+     * allowable value if it isn't.
+     *
+     * @param value the value to be checked
+     * @return the nearest allowable value to the given value
+     */
+    public long constrain(long value)
+    {
+        if(value < min)
+        {
+            return min;
+        }
+        if(value > max)
+        {
+            return max;
+        }
+        return value;
+    }
+
+    @Override
+    public Long getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Sets the minimum value that this <code>Variables</code> object can take
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     */
+    public void setMin(long min)
+    {
+        this.min = min;
+    }
+
+    @Override
+    public Long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Sets the maximum value that this <code>Variables</code> object can take
+     *
+     * @param max the maximum value that this <code>Variables</code> object can take
+     */
+    public void setMax(long max)
+    {
+        this.max = max;
+    }
+
+    /**
+     * Returns 0, as a <code>long</code> has no decimal places.
+     *
+     * @return 0
+     */
+    @Override
+    public int getScale()
+    {
+        return 0;
+    }
+
+    /**
+     * The scale of a whole number is always 0, which displays it in full.
+     *
+     * @return <code>true</code>
+     */
+    @Override
+    public boolean isScaled()
+    {
+        return true;
+    }
+}
@@ -17,15 +17,19 @@ package core.data;
  * @version 1.1.0
  */
 
-public class Numeric<V extends Number> extends Variable<V>
+public class Numeric<V extends Number> extends Variable<V> implements Scaled
 {
 
-    private int scale;
+    private int scale = 0;
+
+    /**
+     * Indicates whether or not the scale has been set.
+     */
+    private boolean isScaled = false;
 
     public Numeric(V value)
     {
         setValue(value);
-        setScale(0);
     }
 
 
@@ -34,6 +38,7 @@ public class Numeric<V extends Number> extends Variable<V>
      *
      * @return an <code>int</code> indicating the number of decimal places that this <code>Numeric</code> variable is rounded to.
      */
+    @Override
     public int getScale()
     {
         return scale;
@@ -47,5 +52,18 @@ public class Numeric<V extends Number> extends Variable<V>
     public void setScale(int scale)
     {
         this.scale = scale;
+        isScaled = true;
+    }
+
+    /**
+     * Indicates whether or not the scale has been set. A value whose scale has not been set is
+     * displayed in full rather than rounded to the default scale of 0.
+     *
+     * @return <code>true</code> if the scale has been set and <code>false</code> if not
+     */
+    @Override
+    public boolean isScaled()
+    {
+        return isScaled;
     }
 }
\ No newline at end of file
@@ -14,7 +14,7 @@ package core.data;
  * @author Andrew Reilly
  * @version 1.1.0
  */
-public class Range<V extends Number> extends Numeric<V>
+public class Range<V extends Number> extends Numeric<V> implements Bounded<V>
 {
 
     /**
@@ -27,6 +27,16 @@ public class Range<V extends Number> extends Numeric<V>
      */
     private V max;
 
+    /**
+     * The minimum value as a <code>double</code>, so that it is not unboxed every time a value is checked.
+     */
+    private double minLimit = Double.NEGATIVE_INFINITY;
+
+    /**
+     * The maximum value as a <code>double</code>, so that it is not unboxed every time a value is checked.
+     */
+    private double maxLimit = Double.POSITIVE_INFINITY;
+
 
     /**
      * Constructs a numeric <code>Variables</code> object that has a limited range.
@@ -38,8 +48,8 @@ public class Range<V extends Number> extends Numeric<V>
     public Range(V minValue, V maxValue, V value)
     {
         super(value);
-        min = minValue;
-        max = maxValue;
+        setMin(minValue);
+        setMax(maxValue);
         setValue(value);
     }
 
@@ -62,16 +72,22 @@ public class Range<V extends Number> extends Numeric<V>
      *
      * @return the minimum value that this <code>Variables</code> object can take
      */
+    @Override
     public V getMin()
     {
         return min;
     }
 
 
-
+    /**
+     * Sets the minimum value that this <code>Variables</code> object can take
+     *
+     * @param min the minimum value that this <code>Variables</code> object can take
+     */
     public void setMin(V min)
     {
         this.min = min;
+        minLimit = min == null ? Double.NEGATIVE_INFINITY : min.doubleValue();
     }
 
     /**
@@ -79,6 +95,7 @@ public class Range<V extends Number> extends Numeric<V>
      *
      * @return the maximum value that this <code>Variables</code> object can take
      */
+    @Override
     public V getMax()
     {
         return max;
@@ -92,6 +109,7 @@ public class Range<V extends Number> extends Numeric<V>
     public void setMax(V max)
     {
         this.max = max;
+        maxLimit = max == null ? Double.POSITIVE_INFINITY : max.doubleValue();
     }
 
     /**
@@ -116,7 +134,7 @@ public class Range<V extends Number> extends Numeric<V>
      */
     private V minLimit(V value)
     {
-        if (value.doubleValue() < min.doubleValue())
+        if (value.doubleValue() < minLimit)
         {
             return min;
         }
@@ -132,7 +150,7 @@ public class Range<V extends Number> extends Numeric<V>
      */
     private V maxLimit(V value)
     {
-        if (value.doubleValue() > max.doubleValue())
+        if (value.doubleValue() > maxLimit)
         {
             return max;
         }
@@ -0,0 +1,644 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.Updater;
+import core.Updating;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * The order in which the rows of a <code>Table</code> are shown, after they have been filtered and
+ * sorted. Filtering and sorting run on a <code>ForkJoinPool</code> rather than on the thread that
+ * asks for them: the rows that pass the filter are collected into an index array in parallel chunks, and the
+ * index array is then sorted by the values of a column with a parallel, stable merge sort. The
+ * finished order is published by replacing a single array, so a view never sees a half-sorted order,
+ * and the change is then passed on to the objects linked to this order by the <code>Updater</code>.
+ * <p>
+ * Each call to <code>sort</code>, <code>filter</code> or <code>refresh</code> supersedes the work
+ * started by the calls before it. The future of superseded work is cancelled, so it is
+ * <code>isCancelled()</code> and <code>join()</code> throws a <code>CancellationException</code>, and
+ * the work itself stops at its next check, so only the order asked for last is ever published.
+ * Cancelling a future returned by this order stops its work in the same way.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class RowOrder implements Updating
+{
+    /**
+     * The number of rows that are filtered by one task.
+     */
+    private static final int FILTER_CHUNK = 1 << 16;
+
+    /**
+     * The number of rows below which a range is sorted without forking.
+     */
+    private static final int SORT_THRESHOLD = 1 << 13;
+
+    /**
+     * The number of rows below which two runs are merged without forking.
+     */
+    private static final int MERGE_THRESHOLD = 1 << 13;
+
+    /**
+     * The number of rows below which a range is sorted by insertion.
+     */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private final Table table;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * The number of times the order has been asked for, which identifies the latest request.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * The indexes of the rows to be shown, in order, or <code>null</code> if every row is shown in
+     * its own order.
+     */
+    private volatile int[] rows = null;
+
+    /**
+     * The index of the column that the rows are sorted by, or -1 if they are not sorted.
+     */
+    private int sortColumn = -1;
+
+    private boolean isAscending = true;
+
+    /**
+     * The filter that rows must pass to be shown, or <code>null</code> if every row is shown.
+     */
+    private IntPredicate filter = null;
+
+    /**
+     * The future of the latest request, which is cancelled when a later request supersedes it.
+     */
+    private CompletableFuture<int[]> latest = null;
+
+    /**
+     * Creates an order for the given table that does its work on the common pool.
+     *
+     * @param table the <code>Table</code> whose rows are ordered
+     */
+    public RowOrder(Table table)
+    {
+        this(table, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an order for the given table that does its work on the given pool.
+     *
+     * @param table the <code>Table</code> whose rows are ordered
+     * @param pool the <code>ForkJoinPool</code> that filters and sorts the rows
+     */
+    public RowOrder(Table table, ForkJoinPool pool)
+    {
+        this.table = table;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the table whose rows are ordered.
+     *
+     * @return the <code>Table</code> whose rows are ordered
+     */
+    public Table getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Sorts the shown rows by the values of the given column. Rows with equal values keep their
+     * order in the table.
+     *
+     * @param column the index of the column to sort by, or -1 to show the rows in their own order
+     * @param isAscending <code>true</code> to put the smallest value first and <code>false</code>
+     * to put the largest value first
+     * @return a future that completes with the new order once it has been published, or is
+     * cancelled if a later request supersedes it
+     */
+    public synchronized CompletableFuture<int[]> sort(int column, boolean isAscending)
+    {
+        this.sortColumn = column;
+        this.isAscending = isAscending;
+        return refresh();
+    }
+
+    /**
+     * Shows only the rows that pass the given filter, which is given the index of each row in the
+     * table. The filter is called on several threads at once.
+     *
+     * @param filter an <code>IntPredicate</code> that accepts the rows to be shown, or
+     * <code>null</code> to show every row
+     * @return a future that completes with the new order once it has been published, or is
+     * cancelled if a later request supersedes it
+     */
+    public synchronized CompletableFuture<int[]> filter(IntPredicate filter)
+    {
+        this.filter = filter;
+        return refresh();
+    }
+
+    /**
+     * Filters and sorts the rows again, for example after the values in the table have changed.
+     *
+     * @return a future that completes with the new order once it has been published, or is
+     * cancelled if a later request supersedes it
+     */
+    public synchronized CompletableFuture<int[]> refresh()
+    {
+        Request request = new Request(generation.incrementAndGet());
+        if(latest != null)
+        {
+            latest.cancel(false);
+        }
+        latest = request.future;
+        int column = sortColumn;
+        boolean isAscending = this.isAscending;
+        IntPredicate filter = this.filter;
+        pool.execute(() ->
+        {
+            try
+            {
+                request.future.complete(publish(request, order(request, column, isAscending, filter)));
+            }
+            catch(CancellationException e)
+            {
+                request.future.cancel(false);
+            }
+            catch(Throwable e)
+            {
+                request.future.completeExceptionally(e);
+            }
+        });
+        return request.future;
+    }
+
+    /**
+     * Returns the number of rows that are shown.
+     *
+     * @return an <code>int</code> indicating the number of rows that are shown
+     */
+    public int getRowCount()
+    {
+        int[] rows = this.rows;
+        return rows == null ? table.getRowCount() : rows.length;
+    }
+
+    /**
+     * Returns the index in the table of the row shown at the given position.
+     *
+     * @param index the position of the row when it is shown
+     * @return the index of the row in the table
+     */
+    public int getRow(int index)
+    {
+        int[] rows = this.rows;
+        return rows == null ? index : rows[index];
+    }
+
+    /**
+     * Returns the indexes in the table of the rows that are shown, in order. The array is shared
+     * and must not be changed.
+     *
+     * @return the indexes of the rows that are shown, or <code>null</code> if every row is shown in
+     * its own order
+     */
+    public int[] getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Filters and sorts the rows of the table, stopping if a later request is made.
+     */
+    private int[] order(Request request, int column, boolean isAscending, IntPredicate filter)
+    {
+        int rowCount = table.getRowCount();
+        if(filter == null && column < 0)
+        {
+            return null;
+        }
+        int[] rows = filter(request, rowCount, filter);
+        if(column >= 0)
+        {
+            sort(request, rows, table.getColumn(column), isAscending);
+        }
+        return rows;
+    }
+
+    /**
+     * Makes the given order the shown order if it is still the latest one asked for, and passes
+     * the change on.
+     */
+    private int[] publish(Request request, int[] rows)
+    {
+        synchronized(this)
+        {
+            checkRequest(request);
+            this.rows = rows;
+        }
+        Updater.get().update(this);
+        return rows;
+    }
+
+    /**
+     * Collects the indexes of the rows that pass the filter. Each chunk of rows writes the rows
+     * that pass into its own part of a scratch array, and the parts are then copied together.
+     */
+    private int[] filter(Request request, int rowCount, IntPredicate filter)
+    {
+        int chunks = (rowCount + FILTER_CHUNK - 1) / FILTER_CHUNK;
+        int[] scratch = new int[rowCount];
+        int[] counts = new int[chunks];
+        new ChunkTask(0, chunks, (chunk) ->
+        {
+            checkRequest(request);
+            int first = chunk * FILTER_CHUNK;
+            int last = Math.min(rowCount, first + FILTER_CHUNK);
+            int count = 0;
+            for(int row = first; row < last; row++)
+            {
+                if(filter == null || filter.test(row))
+                {
+                    scratch[first + count++] = row;
+                }
+            }
+            counts[chunk] = count;
+        }).invoke();
+        int[] offsets = new int[chunks + 1];
+        for(int chunk = 0; chunk < chunks; chunk++)
+        {
+            offsets[chunk + 1] = offsets[chunk] + counts[chunk];
+        }
+        if(offsets[chunks] == rowCount)
+        {
+            return scratch;
+        }
+        int[] rows = new int[offsets[chunks]];
+        new ChunkTask(0, chunks, (chunk) ->
+            System.arraycopy(scratch, chunk * FILTER_CHUNK, rows, offsets[chunk], counts[chunk])).invoke();
+        return rows;
+    }
+
+    /**
+     * Sorts the given row indexes by the values of the given column. The values are first copied
+     * into an array alongside the indexes, so that the sort reads them in order.
+     */
+    private void sort(Request request, int[] rows, Column column, boolean isAscending)
+    {
+        int count = rows.length;
+        double[] keys = new double[count];
+        int chunks = (count + FILTER_CHUNK - 1) / FILTER_CHUNK;
+        new ChunkTask(0, chunks, (chunk) ->
+        {
+            checkRequest(request);
+            int last = Math.min(count, (chunk + 1) * FILTER_CHUNK);
+            for(int i = chunk * FILTER_CHUNK; i < last; i++)
+            {
+                keys[i] = column.getDouble(rows[i]);
+            }
+        }).invoke();
+        new SortTask(new Run(keys, rows, new double[count], new int[count], isAscending, request), 0, count, false).invoke();
+    }
+
+    /**
+     * Throws a <code>CancellationException</code> if a later order has been asked for, or if the
+     * future of the request has been cancelled.
+     */
+    private void checkRequest(Request request)
+    {
+        if(generation.get() != request.generation || request.future.isCancelled())
+        {
+            throw new CancellationException("Cancelled or superseded by a later request");
+        }
+    }
+
+    @Override
+    public void update(Updating parent)
+    {
+
+    }
+
+    /**
+     * A request for an order, identified by the number of times the order had been asked for when
+     * it was made.
+     */
+    private static class Request
+    {
+        private final long generation;
+
+        private final CompletableFuture<int[]> future = new CompletableFuture<>();
+
+        private Request(long generation)
+        {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * The work done on one chunk by a <code>ChunkTask</code>.
+     */
+    private interface ChunkWork
+    {
+        void run(int chunk);
+    }
+
+    /**
+     * Runs a piece of work on each of a range of chunks, splitting the range in half until each
+     * task has a single chunk.
+     */
+    private static class ChunkTask extends RecursiveAction
+    {
+        private final int first;
+
+        private final int last;
+
+        private final ChunkWork work;
+
+        private ChunkTask(int first, int last, ChunkWork work)
+        {
+            this.first = first;
+            this.last = last;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(last - first <= 1)
+            {
+                if(last > first)
+                {
+                    work.run(first);
+                }
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new ChunkTask(first, middle, work), new ChunkTask(middle, last, work));
+        }
+    }
+
+    /**
+     * The arrays being sorted. The keys and row indexes are moved together, and are merged back and
+     * forth between the main arrays and the scratch arrays so that they are never copied back.
+     */
+    private class Run
+    {
+        private final double[] keys;
+
+        private final int[] rows;
+
+        private final double[] scratchKeys;
+
+        private final int[] scratchRows;
+
+        private final boolean isAscending;
+
+        private final Request request;
+
+        private Run(double[] keys, int[] rows, double[] scratchKeys, int[] scratchRows, boolean isAscending, Request request)
+        {
+            this.keys = keys;
+            this.rows = rows;
+            this.scratchKeys = scratchKeys;
+            this.scratchRows = scratchRows;
+            this.isAscending = isAscending;
+            this.request = request;
+        }
+
+        /**
+         * Returns whether the first key is placed after the second.
+         */
+        private boolean isAfter(double key, double other)
+        {
+            int comparison = Double.compare(key, other);
+            return isAscending ? comparison > 0 : comparison < 0;
+        }
+
+        /**
+         * Sorts a range without forking, leaving the result in the scratch arrays if
+         * <code>isIntoScratch</code> is <code>true</code> and in the main arrays if not.
+         */
+        private void sort(int first, int last, boolean isIntoScratch)
+        {
+            if(last - first <= INSERTION_THRESHOLD)
+            {
+                insertionSort(first, last);
+                if(isIntoScratch)
+                {
+                    System.arraycopy(keys, first, scratchKeys, first, last - first);
+                    System.arraycopy(rows, first, scratchRows, first, last - first);
+                }
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            sort(first, middle, !isIntoScratch);
+            sort(middle, last, !isIntoScratch);
+            if(isIntoScratch)
+            {
+                merge(keys, rows, first, middle, middle, last, scratchKeys, scratchRows, first);
+            }
+            else
+            {
+                merge(scratchKeys, scratchRows, first, middle, middle, last, keys, rows, first);
+            }
+        }
+
+        private void insertionSort(int first, int last)
+        {
+            for(int i = first + 1; i < last; i++)
+            {
+                double key = keys[i];
+                int row = rows[i];
+                int j = i - 1;
+                while(j >= first && isAfter(keys[j], key))
+                {
+                    keys[j + 1] = keys[j];
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                rows[j + 1] = row;
+            }
+        }
+
+        /**
+         * Merges two sorted runs into the target arrays, taking from the first run when keys are
+         * equal so that the sort is stable.
+         */
+        private void merge(double[] sourceKeys, int[] sourceRows, int first1, int last1, int first2, int last2,
+                           double[] targetKeys, int[] targetRows, int target)
+        {
+            int i = first1;
+            int j = first2;
+            while(i < last1 && j < last2)
+            {
+                if(isAfter(sourceKeys[i], sourceKeys[j]))
+                {
+                    targetKeys[target] = sourceKeys[j];
+                    targetRows[target++] = sourceRows[j++];
+                }
+                else
+                {
+                    targetKeys[target] = sourceKeys[i];
+                    targetRows[target++] = sourceRows[i++];
+                }
+            }
+            System.arraycopy(sourceKeys, i, targetKeys, target, last1 - i);
+            System.arraycopy(sourceRows, i, targetRows, target, last1 - i);
+            target += last1 - i;
+            System.arraycopy(sourceKeys, j, targetKeys, target, last2 - j);
+            System.arraycopy(sourceRows, j, targetRows, target, last2 - j);
+        }
+
+        /**
+         * Returns the index of the first key in the range that is placed after the given key, or
+         * that is not placed before it if <code>isEqualAfter</code> is <code>true</code>.
+         */
+        private int search(double[] sourceKeys, int first, int last, double key, boolean isEqualAfter)
+        {
+            while(first < last)
+            {
+                int middle = (first + last) >>> 1;
+                boolean isMiddleAfter = isEqualAfter ? !isAfter(key, sourceKeys[middle]) : isAfter(sourceKeys[middle], key);
+                if(isMiddleAfter)
+                {
+                    last = middle;
+                }
+                else
+                {
+                    first = middle + 1;
+                }
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Sorts a range in parallel by sorting its halves in parallel and merging them in parallel.
+     */
+    private class SortTask extends RecursiveAction
+    {
+        private final Run run;
+
+        private final int first;
+
+        private final int last;
+
+        private final boolean isIntoScratch;
+
+        private SortTask(Run run, int first, int last, boolean isIntoScratch)
+        {
+            this.run = run;
+            this.first = first;
+            this.last = last;
+            this.isIntoScratch = isIntoScratch;
+        }
+
+        @Override
+        protected void compute()
+        {
+            checkRequest(run.request);
+            if(last - first <= SORT_THRESHOLD)
+            {
+                run.sort(first, last, isIntoScratch);
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new SortTask(run, first, middle, !isIntoScratch), new SortTask(run, middle, last, !isIntoScratch));
+            if(isIntoScratch)
+            {
+                new MergeTask(run, run.keys, run.rows, first, middle, middle, last, run.scratchKeys, run.scratchRows, first).invoke();
+            }
+            else
+            {
+                new MergeTask(run, run.scratchKeys, run.scratchRows, first, middle, middle, last, run.keys, run.rows, first).invoke();
+            }
+        }
+    }
+
+    /**
+     * Merges two sorted runs in parallel. The longer run is split at its middle key, the other run
+     * is split where that key would go, and the two pairs of halves are merged at the same time.
+     */
+    private class MergeTask extends RecursiveAction
+    {
+        private final Run run;
+
+        private final double[] sourceKeys;
+
+        private final int[] sourceRows;
+
+        private final int first1;
+
+        private final int last1;
+
+        private final int first2;
+
+        private final int last2;
+
+        private final double[] targetKeys;
+
+        private final int[] targetRows;
+
+        private final int target;
+
+        private MergeTask(Run run, double[] sourceKeys, int[] sourceRows, int first1, int last1, int first2, int last2,
+                          double[] targetKeys, int[] targetRows, int target)
+        {
+            this.run = run;
+            this.sourceKeys = sourceKeys;
+            this.sourceRows = sourceRows;
+            this.first1 = first1;
+            this.last1 = last1;
+            this.first2 = first2;
+            this.last2 = last2;
+            this.targetKeys = targetKeys;
+            this.targetRows = targetRows;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute()
+        {
+            checkRequest(run.request);
+            int length1 = last1 - first1;
+            int length2 = last2 - first2;
+            if(length1 + length2 <= MERGE_THRESHOLD)
+            {
+                run.merge(sourceKeys, sourceRows, first1, last1, first2, last2, targetKeys, targetRows, target);
+                return;
+            }
+            int split1;
+            int split2;
+            if(length1 >= length2)
+            {
+                split1 = (first1 + last1) >>> 1;
+                split2 = run.search(sourceKeys, first2, last2, sourceKeys[split1], true);
+            }
+            else
+            {
+                split2 = (first2 + last2) >>> 1;
+                split1 = run.search(sourceKeys, first1, last1, sourceKeys[split2], false);
+            }
+            int middle = target + (split1 - first1) + (split2 - first2);
+            invokeAll(new MergeTask(run, sourceKeys, sourceRows, first1, split1, first2, split2, targetKeys, targetRows, target),
+                new MergeTask(run, sourceKeys, sourceRows, split1, last1, split2, last2, targetKeys, targetRows, middle));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+/**
+ * Interface for numeric <code>Variables</code> objects that can be rounded to a number of decimal
+ * places when they are displayed. A value whose scale has not been set is displayed in full.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public interface Scaled
+{
+
+    /**
+     * Returns the number of decimal places that this <code>Variables</code> object is rounded to.
+     *
+     * @return an <code>int</code> indicating the number of decimal places that this <code>Variables</code>
+     * object is rounded to.
+     */
+    int getScale();
+
+    /**
+     * Indicates whether or not the scale has been set. A value whose scale has not been set is
+     * displayed in full rather than rounded to the default scale.
+     *
+     * @return <code>true</code> if the scale has been set and <code>false</code> if not
+     */
+    boolean isScaled();
+}
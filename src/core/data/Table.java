@@ -0,0 +1,237 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+package core.data;
+
+import core.Name;
+import core.Updater;
+import core.Updating;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A table of numbers stored as a list of <code>Column</code>s, each of which holds its values in an
+ * array of primitives. Values are written straight into the columns, and the table is then told
+ * which rows and columns have changed with <code>update</code>, which passes the change on to the
+ * objects linked to the table by the <code>Updater</code> in the same way as a
+ * <code>Variable</code>. When the table is shown, changes made on other threads are conflated, so a
+ * table updated many times between two frames is only shown once.
+ * <p>
+ * The last <code>CHANGE_LOG_SIZE</code> changed ranges are remembered, so each object showing the
+ * table can find out what has changed since it last looked with <code>getChanges</code>.
+ * <p>
+ * Rows must be added with <code>setRowCount</code> before values are written into them.
+ *
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+public class Table extends Name implements Updating
+{
+    /**
+     * The number of changed ranges that are remembered.
+     */
+    public static final int CHANGE_LOG_SIZE = 64;
+
+    private final CopyOnWriteArrayList<Column> columns = new CopyOnWriteArrayList<>();
+
+    private volatile int rowCount = 0;
+
+    /**
+     * The changed ranges, stored as the first row, the row after the last row, the first column and
+     * the column after the last column of each range, in the order they were made.
+     */
+    private final int[] changeLog = new int[CHANGE_LOG_SIZE * 4];
+
+    /**
+     * The number of ranges that have been added to the change log.
+     */
+    private long changeCount = 0;
+
+    /**
+     * Creates an empty table with the given name.
+     *
+     * @param name the name of this table
+     */
+    public Table(String name)
+    {
+        super(name, name);
+    }
+
+    /**
+     * Adds a column to the right of the existing columns, making room in it for the rows of this
+     * table.
+     *
+     * @param column the <code>Column</code> to be added
+     * @param <C> the type of the column
+     * @return the column that was added
+     */
+    public <C extends Column> C addColumn(C column)
+    {
+        column.ensureCapacity(rowCount);
+        columns.add(column);
+        update(0, rowCount, columns.size() - 1, columns.size());
+        return column;
+    }
+
+    /**
+     * Returns the column at the given index.
+     *
+     * @param index the index of the column
+     * @return the <code>Column</code> at the given index
+     */
+    public Column getColumn(int index)
+    {
+        return columns.get(index);
+    }
+
+    /**
+     * Returns the columns of this table, from left to right. The list cannot be changed.
+     *
+     * @return a <code>List</code> of the columns of this table
+     */
+    public List<Column> getColumns()
+    {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Returns the number of columns in this table.
+     *
+     * @return an <code>int</code> indicating the number of columns
+     */
+    public int getColumnCount()
+    {
+        return columns.size();
+    }
+
+    /**
+     * Returns the number of rows in this table.
+     *
+     * @return an <code>int</code> indicating the number of rows
+     */
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Sets the number of rows in this table. Every column is given room for the rows before the
+     * new number is published, so any row below the number of rows can be read from every column.
+     * Added rows are shown as changed.
+     *
+     * @param rowCount the number of rows in this table
+     */
+    public synchronized void setRowCount(int rowCount)
+    {
+        if(rowCount < 0)
+        {
+            throw new IllegalArgumentException("Row count cannot be negative: " + rowCount);
+        }
+        for(Column column : columns)
+        {
+            column.ensureCapacity(rowCount);
+        }
+        int previousCount = this.rowCount;
+        this.rowCount = rowCount;
+        update(Math.min(previousCount, rowCount), Math.max(previousCount, rowCount), 0, columns.size());
+    }
+
+    /**
+     * Records that the values in the given rows of the given columns have changed and passes the
+     * change on to the objects linked to this table.
+     *
+     * @param firstRow the index of the first changed row
+     * @param lastRow the index after the last changed row
+     * @param firstColumn the index of the first changed column
+     * @param lastColumn the index after the last changed column
+     */
+    public void update(int firstRow, int lastRow, int firstColumn, int lastColumn)
+    {
+        synchronized(changeLog)
+        {
+            int index = (int)(changeCount % CHANGE_LOG_SIZE) * 4;
+            changeLog[index] = firstRow;
+            changeLog[index + 1] = lastRow;
+            changeLog[index + 2] = firstColumn;
+            changeLog[index + 3] = lastColumn;
+            changeCount++;
+        }
+        Updater.get().update(this);
+    }
+
+    /**
+     * Records that every value in the given column has changed and passes the change on to the
+     * objects linked to this table.
+     *
+     * @param column the index of the changed column
+     */
+    public void updateColumn(int column)
+    {
+        update(0, rowCount, column, column + 1);
+    }
+
+    /**
+     * Returns the number of changes that have been made to this table, which is passed to
+     * <code>getChanges</code> to find what has changed since.
+     *
+     * @return a <code>long</code> indicating the number of changes made to this table
+     */
+    public long getChangeCount()
+    {
+        synchronized(changeLog)
+        {
+            return changeCount;
+        }
+    }
+
+    /**
+     * Finds the smallest range of rows and columns that holds every change made since the given
+     * number of changes had been made. If more than <code>CHANGE_LOG_SIZE</code> changes have been
+     * made since, the whole table is given.
+     *
+     * @param since the number of changes returned by an earlier call to <code>getChangeCount</code>
+     * @param range an array of at least four elements that is set to the first row, the row after
+     * the last row, the first column and the column after the last column of the changes
+     * @return the number of changes made to this table, to be passed to the next call
+     */
+    public long getChanges(long since, int[] range)
+    {
+        synchronized(changeLog)
+        {
+            if(changeCount - since > CHANGE_LOG_SIZE || since > changeCount)
+            {
+                range[0] = 0;
+                range[1] = Integer.MAX_VALUE;
+                range[2] = 0;
+                range[3] = Integer.MAX_VALUE;
+                return changeCount;
+            }
+            range[0] = Integer.MAX_VALUE;
+            range[1] = 0;
+            range[2] = Integer.MAX_VALUE;
+            range[3] = 0;
+            for(long change = since; change < changeCount; change++)
+            {
+                int index = (int)(change % CHANGE_LOG_SIZE) * 4;
+                range[0] = Math.min(range[0], changeLog[index]);
+                range[1] = Math.max(range[1], changeLog[index + 1]);
+                range[2] = Math.min(range[2], changeLog[index + 2]);
+                range[3] = Math.max(range[3], changeLog[index + 3]);
+            }
+            return changeCount;
+        }
+    }
+
+    @Override
+    public void update(Updating parent)
+    {
+
+    }
+}
@@ -8,9 +8,11 @@
 
 package core.data;
 
+import core.Name;
+import core.Updater;
 import core.Updating;
-import core.app.Name;
-import core.app.element.active.ItemController;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Abstract base class for <code>Variables</code> objects.
@@ -22,14 +24,18 @@ public class Variable<V> extends Name implements Variables<V>
 {
 
     /**
-     * The value represented by this object.
+     * The value represented by this object. This is volatile so that a value set on one thread
+     * is seen by the event dispatch thread when the change is propagated.
      */
-    private V value;
+    private volatile V value;
 
     /**
-     * Indicates whether or not the value of this object has changed.
+     * A number that is changed whenever the value changes, on the thread that changes it.
      */
-    private boolean hasUpdated;
+    private volatile long version = 0;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<Variable> versionUpdater = AtomicLongFieldUpdater.newUpdater(Variable.class, "version");
 
     /**
      * Simple constructor with a <code>null</code> value.
@@ -37,7 +43,6 @@ public class Variable<V> extends Name implements Variables<V>
     public Variable()
     {
         value = null;
-        hasUpdated = false;
     }
 
     /**
@@ -46,14 +51,13 @@ public class Variable<V> extends Name implements Variables<V>
     public Variable(V value)
     {
         this.value = value;
-        hasUpdated = false;
     }
 
     @Override
     public void setValue(V value)
     {
         this.value = value;
-        ItemController.get().update(this);
+        propagate();
     }
 
     @Override
@@ -62,21 +66,41 @@ public class Variable<V> extends Name implements Variables<V>
         return value;
     }
 
-    @Override
-    public void update(Updating parent)
+    /**
+     * Propagates a change in the value of this object to the objects linked to it. Subclasses that
+     * store their value in a field of their own call this after changing it.
+     */
+    protected void propagate()
     {
+        changeVersion();
+        Updater.get().update(this);
+    }
 
+    /**
+     * Returns a number that is changed whenever the value changes. The number is changed on the
+     * thread that changes the value, before the change is propagated, so an object that reads the
+     * value can compare the version with the one it last read to find out straight away whether the
+     * value has changed since, even if the linked objects are updated later on another thread.
+     *
+     * @return a <code>long</code> that is different whenever the value has changed
+     */
+    public long getVersion()
+    {
+        return version;
     }
 
-    @Override
-    public boolean hasUpdated()
+    /**
+     * Changes the version of this object. This is called by <code>propagate()</code>, and by
+     * subclasses that change their value without propagating it.
+     */
+    protected void changeVersion()
     {
-        return hasUpdated;
+        versionUpdater.incrementAndGet(this);
     }
 
     @Override
-    public void hasUpdated(boolean hasUpdated)
+    public void update(Updating parent)
     {
-        this.hasUpdated = hasUpdated;
+
     }
 }
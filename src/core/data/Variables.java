@@ -10,8 +10,8 @@
 
 package core.data;
 
+import core.Nameable;
 import core.Updating;
-import core.app.Nameable;
 
 /**
  * Convenience class for <code>Variables</code> objects.
@@ -14,19 +14,102 @@ import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 
 /**
  * A singleton for retrieving images from the images folder.
+ * <p>
+ * Images are decoded in full the first time they are requested and are then cached by file name,
+ * so windows and dialogs that use the same icons share one decoded copy. The cache holds images
+ * strongly up to a bound on the total number of pixel bytes, evicting the least recently used
+ * images first. Evicted images are still held softly, so they can be reused until the garbage
+ * collector needs the memory.
+ * <p>
+ * Images can be decoded ahead of time on background threads using <code>preload</code>, for
+ * example while a window is being built. A request for an image that is still being preloaded
+ * waits for it rather than decoding it a second time.
  *
  * @author Andrew Reilly
  * @version 1.1.0
  */
 public class ImageFetcher
 {
+    /**
+     * The default bound on the number of pixel bytes held strongly by the cache.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
     private static ImageFetcher instance = new ImageFetcher();
 
+    /**
+     * The daemon threads that decode preloaded images.
+     */
+    private static final ExecutorService decoder = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), task ->
+            {
+                Thread thread = new Thread(task, "ImageFetcher decoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * The preloads that have not finished yet, keyed by file name.
+     */
+    private HashMap<String, CompletableFuture<Image>> preloads = new HashMap<>();
+
+    /**
+     * Called on a decoder thread with the file name and the cause when a preload fails, or
+     * <code>null</code> if failures are only reported through the returned futures.
+     */
+    private volatile BiConsumer<String, Throwable> errorListener = null;
+
+    /**
+     * The images held strongly, keyed by file name, in order from least to most recently used.
+     */
+    private LinkedHashMap<String, CachedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Images that have been evicted from <code>images</code> and are only held softly.
+     */
+    private HashMap<String, SoftReference<CachedImage>> evictedImages = new HashMap<>();
+
+    /**
+     * The bound on the number of pixel bytes held strongly by the cache.
+     */
+    private long maxBytes = DEFAULT_MAX_BYTES;
+
+    /**
+     * The number of pixel bytes held strongly by the cache.
+     */
+    private long cachedBytes = 0;
+
+    /**
+     * The number of requests that were answered from the cache.
+     */
+    private long hits = 0;
+
+    /**
+     * The number of requests that needed an image to be decoded.
+     */
+    private long misses = 0;
+
+    /**
+     * The number of images that have been evicted from the strongly held part of the cache.
+     */
+    private long evictions = 0;
+
     public static ImageFetcher get()
     {
         return instance;
@@ -40,16 +123,8 @@ public class ImageFetcher
      */
     public final ImageIcon getImageIcon(String filename)
     {
-        ImageIcon image = null;
-        try
-        {
-            image = new ImageIcon(Toolkit.getDefaultToolkit().getImage(ImageFetcher.class.getResource(filename)));
-        }
-        catch (Exception e)
-        {
-            MessageDialog.showErrorDialog("Cannot retrieve image file " + filename);
-        }
-        return image;
+        CachedImage cachedImage = fetch(filename);
+        return cachedImage == null ? null : cachedImage.getIcon();
     }
 
     /**
@@ -60,15 +135,327 @@ public class ImageFetcher
      */
     public final Image getImage(String filename)
     {
-        Image image = null;
+        CachedImage cachedImage = fetch(filename);
+        return cachedImage == null ? null : cachedImage.image;
+    }
+
+    /**
+     * Decodes the given image files on background threads and adds them to the cache. Images that
+     * are already cached or already being preloaded are not decoded again. A failure completes the
+     * matching future exceptionally and is passed to the error listener, if there is one; no
+     * dialog is shown.
+     *
+     * @param filenames the names of the image files to be preloaded
+     * @return a <code>List</code> of futures, one for each file name in the same order, that
+     * complete with the decoded image
+     */
+    public List<CompletableFuture<Image>> preload(String... filenames)
+    {
+        ArrayList<CompletableFuture<Image>> futures = new ArrayList<>(filenames.length);
+        for(String filename : filenames)
+        {
+            futures.add(preload(filename));
+        }
+        return futures;
+    }
+
+    /**
+     * Starts a preload of the given image file unless it is cached or already being preloaded.
+     */
+    private synchronized CompletableFuture<Image> preload(String filename)
+    {
+        CachedImage cachedImage = images.get(filename);
+        if(cachedImage != null)
+        {
+            return CompletableFuture.completedFuture(cachedImage.image);
+        }
+        CompletableFuture<Image> future = preloads.get(filename);
+        if(future == null)
+        {
+            future = CompletableFuture.supplyAsync(() ->
+            {
+                try
+                {
+                    return cache(filename, new CachedImage(decode(filename))).image;
+                }
+                catch (Exception e)
+                {
+                    throw new CompletionException(e);
+                }
+            }, decoder);
+            preloads.put(filename, future);
+            future.whenComplete((image, e) ->
+            {
+                synchronized(this)
+                {
+                    preloads.remove(filename);
+                }
+                BiConsumer<String, Throwable> listener = errorListener;
+                if(e != null && listener != null)
+                {
+                    listener.accept(filename, e instanceof CompletionException ? e.getCause() : e);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * Sets the listener that is called when a preload fails. The listener is called on the thread
+     * that decoded the image, so it must not block and must pass any work on Swing components to the
+     * event dispatch thread.
+     *
+     * @param errorListener a listener that accepts the file name and the cause of the failure, or
+     * <code>null</code> to only report failures through the returned futures
+     */
+    public void setErrorListener(BiConsumer<String, Throwable> errorListener)
+    {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Returns the cached image with the given file name, decoding and caching it if necessary. If
+     * the image is being preloaded the preload is waited for. An error dialog is shown once the
+     * current event has been handled if the image cannot be retrieved.
+     */
+    private CachedImage fetch(String filename)
+    {
+        CachedImage cachedImage = getCached(filename);
+        if(cachedImage != null)
+        {
+            return cachedImage;
+        }
         try
         {
-            image = Toolkit.getDefaultToolkit().getImage(ImageFetcher.class.getResource(filename));
+            CompletableFuture<Image> preload = getPreload(filename);
+            if(preload != null)
+            {
+                preload.join();
+                cachedImage = getCached(filename);
+                if(cachedImage != null)
+                {
+                    return cachedImage;
+                }
+            }
+            cachedImage = new CachedImage(decode(filename));
         }
         catch (Exception e)
         {
-            MessageDialog.showErrorDialog("Cannot retrieve image file " + filename);
+            SwingUtilities.invokeLater(() -> MessageDialog.showErrorDialog("Cannot retrieve image file " + filename));
+            return null;
+        }
+        return cache(filename, cachedImage);
+    }
+
+    /**
+     * Returns the preload of the given image file, or <code>null</code> if it is not being preloaded.
+     */
+    private synchronized CompletableFuture<Image> getPreload(String filename)
+    {
+        return preloads.get(filename);
+    }
+
+    /**
+     * Returns the cached image with the given file name, or <code>null</code> if it is not cached.
+     * An image that is only held softly is moved back into the strongly held part of the cache.
+     */
+    private synchronized CachedImage getCached(String filename)
+    {
+        CachedImage cachedImage = images.get(filename);
+        if(cachedImage == null)
+        {
+            SoftReference<CachedImage> reference = evictedImages.remove(filename);
+            cachedImage = reference == null ? null : reference.get();
+            if(cachedImage == null)
+            {
+                misses++;
+                return null;
+            }
+            add(filename, cachedImage);
+        }
+        hits++;
+        return cachedImage;
+    }
+
+    /**
+     * Adds a decoded image to the cache, unless another thread has cached the same image first,
+     * in which case the image that is already cached is returned.
+     */
+    private synchronized CachedImage cache(String filename, CachedImage cachedImage)
+    {
+        CachedImage existing = images.get(filename);
+        if(existing != null)
+        {
+            return existing;
+        }
+        evictedImages.remove(filename);
+        add(filename, cachedImage);
+        return cachedImage;
+    }
+
+    /**
+     * Adds an image to the strongly held part of the cache and evicts the least recently used
+     * images until the cache is within its bound. The image just added is never evicted.
+     */
+    private void add(String filename, CachedImage cachedImage)
+    {
+        images.put(filename, cachedImage);
+        cachedBytes += cachedImage.bytes;
+        evict(filename);
+    }
+
+    /**
+     * Evicts the least recently used images, other than the one with the given file name, until
+     * the cache is within its bound.
+     */
+    private void evict(String keep)
+    {
+        Iterator<Map.Entry<String, CachedImage>> iterator = images.entrySet().iterator();
+        while(cachedBytes > maxBytes && iterator.hasNext())
+        {
+            Map.Entry<String, CachedImage> entry = iterator.next();
+            if(entry.getKey().equals(keep))
+            {
+                continue;
+            }
+            iterator.remove();
+            cachedBytes -= entry.getValue().bytes;
+            evictedImages.put(entry.getKey(), new SoftReference<>(entry.getValue()));
+            evictions++;
+        }
+    }
+
+    /**
+     * Decodes the image file with the given name in full. Files that <code>ImageIO</code> cannot
+     * read are loaded using the <code>Toolkit</code> and waited for.
+     */
+    private Image decode(String filename) throws Exception
+    {
+        URL url = ImageFetcher.class.getResource(filename);
+        if(url == null)
+        {
+            throw new IllegalArgumentException("No image file " + filename);
+        }
+        BufferedImage image = ImageIO.read(url);
+        if(image != null)
+        {
+            return image;
+        }
+        ImageIcon icon = new ImageIcon(Toolkit.getDefaultToolkit().getImage(url));
+        if(icon.getImageLoadStatus() != MediaTracker.COMPLETE)
+        {
+            throw new IllegalArgumentException("Cannot decode image file " + filename);
+        }
+        return icon.getImage();
+    }
+
+    /**
+     * Sets the bound on the number of pixel bytes held strongly by the cache, evicting images if
+     * the cache is now over the bound.
+     *
+     * @param maxBytes the bound on the number of pixel bytes held strongly by the cache
+     */
+    public synchronized void setMaxBytes(long maxBytes)
+    {
+        if(maxBytes < 0)
+        {
+            throw new IllegalArgumentException("The cache size cannot be negative");
+        }
+        this.maxBytes = maxBytes;
+        evict(null);
+    }
+
+    /**
+     * Returns the bound on the number of pixel bytes held strongly by the cache.
+     *
+     * @return a <code>long</code> indicating the bound on the number of pixel bytes held strongly by the cache
+     */
+    public synchronized long getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the number of pixel bytes held strongly by the cache.
+     *
+     * @return a <code>long</code> indicating the number of pixel bytes held strongly by the cache
+     */
+    public synchronized long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    /**
+     * Returns the number of requests that were answered from the cache, including images that
+     * were only held softly.
+     *
+     * @return a <code>long</code> indicating the number of requests answered from the cache
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests that needed an image to be decoded.
+     *
+     * @return a <code>long</code> indicating the number of requests that needed an image to be decoded
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Returns the number of images that have been evicted from the strongly held part of the cache.
+     *
+     * @return a <code>long</code> indicating the number of images that have been evicted
+     */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Removes every image from the cache. The counters are not reset.
+     */
+    public synchronized void clear()
+    {
+        images.clear();
+        evictedImages.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * A decoded image held by the cache, along with the icon that wraps it.
+     */
+    private static class CachedImage
+    {
+        private final Image image;
+
+        /**
+         * The number of bytes taken up by the pixels of the image, assuming four bytes per pixel.
+         */
+        private final long bytes;
+
+        /**
+         * The icon that wraps the image, which is created the first time it is needed.
+         */
+        private ImageIcon icon = null;
+
+        private CachedImage(Image image)
+        {
+            this.image = image;
+            bytes = 4L * Math.max(image.getWidth(null), 0) * Math.max(image.getHeight(null), 0);
+        }
+
+        private synchronized ImageIcon getIcon()
+        {
+            if(icon == null)
+            {
+                icon = new ImageIcon(image);
+            }
+            return icon;
         }
-        return image;
     }
 }
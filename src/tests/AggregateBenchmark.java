@@ -0,0 +1,172 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.Updater;
+import core.Updating;
+import core.data.Aggregate;
+import core.data.DoubleVariable;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+public class AggregateBenchmark
+{
+
+    private static final int[] GROUP_SIZES = {100, 1000};
+
+    private static final int CHANGES = 1000000;
+
+    /**
+     * The objects that recompute the group in full, which are held here because the
+     * <code>Updater</code> only holds them weakly.
+     */
+    private static Updating[] scripts;
+
+    /**
+     * A sum of the group kept by adding the difference of each change without compensation.
+     */
+    private static double runningSum;
+
+    private static double sink;
+
+    /**
+     * Keeps the sum, mean, minimum and maximum of groups of 100 and 1,000 variables while one
+     * variable at a time is given a new value 1,000,000 times, first with objects that read the whole
+     * group on every change, as a script would, and then with <code>Aggregate</code>s. Reports the
+     * time per change, checks that the aggregates match the group read in full, and reports how far
+     * the compensated sum, and a running sum kept without compensation, have drifted from the exact
+     * sum of the final values. The values range over several orders of magnitude, which is where an
+     * uncompensated running sum drifts the most. Runs without a user interface.
+     */
+    public static void main(String[] args)
+    {
+        for(int size : GROUP_SIZES)
+        {
+            P.p(size + " variables");
+            for(int round = 0; round < 3; round++)
+            {
+                P.p("  round " + round + ": full " + runFull(size) + ", incremental " + runIncremental(size));
+            }
+        }
+    }
+
+    private static DoubleVariable[] createGroup(int size)
+    {
+        DoubleVariable[] group = new DoubleVariable[size];
+        Random random = new Random(2016);
+        for(int i = 0; i < size; i++)
+        {
+            group[i] = new DoubleVariable(value(random));
+        }
+        return group;
+    }
+
+    private static double value(Random random)
+    {
+        return Math.pow(10, random.nextDouble() * 16 - 8) * (random.nextBoolean() ? 1 : -1);
+    }
+
+    private static String runFull(int size)
+    {
+        DoubleVariable[] group = createGroup(size);
+        double[] results = new double[4];
+        Updating script = (parent) ->
+        {
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for(DoubleVariable variable : group)
+            {
+                double value = variable.getDouble();
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            results[0] = sum;
+            results[1] = sum / group.length;
+            results[2] = min;
+            results[3] = max;
+        };
+        scripts = new Updating[]{script};
+        for(DoubleVariable variable : group)
+        {
+            Updater.get().addChild(variable, script);
+        }
+        long time = change(group);
+        sink += results[0] + results[1] + results[2] + results[3];
+        return String.format("%7.1f ns/change", (double)time / CHANGES);
+    }
+
+    private static String runIncremental(int size)
+    {
+        DoubleVariable[] group = createGroup(size);
+        Aggregate sum = new Aggregate(Aggregate.Function.SUM, group);
+        Aggregate mean = new Aggregate(Aggregate.Function.MEAN, group);
+        Aggregate min = new Aggregate(Aggregate.Function.MINIMUM, group);
+        Aggregate max = new Aggregate(Aggregate.Function.MAXIMUM, group);
+        scripts = new Updating[]{sum, mean, min, max};
+        long time = change(group);
+        double[] values = new double[size];
+        BigDecimal exact = BigDecimal.ZERO;
+        for(int i = 0; i < size; i++)
+        {
+            values[i] = group[i].getDouble();
+            exact = exact.add(new BigDecimal(values[i]));
+        }
+        Arrays.sort(values);
+        boolean isCorrect = min.getDouble() == values[0] && max.getDouble() == values[size - 1]
+            && mean.getDouble() == sum.getDouble() / size;
+        double error = Math.abs(new BigDecimal(sum.getDouble()).subtract(exact).doubleValue());
+        double runningError = Math.abs(new BigDecimal(runningSum).subtract(exact).doubleValue());
+        return String.format("%7.1f ns/change, min and max %s, sum error %.3g (uncompensated running sum %.3g)",
+            (double)time / CHANGES, isCorrect ? "correct" : "WRONG", error, runningError);
+    }
+
+    /**
+     * Gives a random variable in the group a new value, one at a time, and returns the time taken.
+     * The same changes are then made to an uncompensated running sum.
+     */
+    private static long change(DoubleVariable[] group)
+    {
+        Random random = new Random(1);
+        double[] changes = new double[CHANGES];
+        int[] indexes = new int[CHANGES];
+        for(int i = 0; i < CHANGES; i++)
+        {
+            indexes[i] = random.nextInt(group.length);
+            changes[i] = value(random);
+        }
+        double[] values = new double[group.length];
+        runningSum = 0;
+        for(int i = 0; i < group.length; i++)
+        {
+            values[i] = group[i].getDouble();
+            runningSum += values[i];
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < CHANGES; i++)
+        {
+            group[indexes[i]].setDouble(changes[i]);
+        }
+        long time = System.nanoTime() - start;
+        for(int i = 0; i < CHANGES; i++)
+        {
+            runningSum += changes[i] - values[indexes[i]];
+            values[indexes[i]] = changes[i];
+        }
+        return time;
+    }
+}
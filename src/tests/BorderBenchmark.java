@@ -0,0 +1,116 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.app.Text;
+import core.app.element.Borders;
+import core.app.element.Element;
+import core.app.element.Label;
+import core.app.element.ListLayout;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EtchedBorder;
+import javax.swing.border.TitledBorder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public class BorderBenchmark
+{
+
+    private static final int ITEMS = 1000;
+
+    /**
+     * Counts the border objects retained by 1,000 items and 1,000 titled elements using the shared
+     * borders, and compares it with creating a new border for each of them as <code>Borders</code>
+     * used to. Can be run headless.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            List<JComponent> items = new ArrayList<>();
+            for(int i = 0; i < ITEMS; i++)
+            {
+                items.add(new Label("Item " + i));
+            }
+            List<JComponent> titledElements = new ArrayList<>();
+            for(int i = 0; i < ITEMS; i++)
+            {
+                titledElements.add(new Element(new ListLayout(), Borders.TITLED, "Group " + (i % 10)));
+            }
+            P.p("items: " + countBorders(items) + " shared borders per " + ITEMS + ", "
+                + countUnshared(ITEMS, Borders.NONE) + " before");
+            P.p("titled elements with 10 titles: " + countBorders(titledElements) + " shared borders per " + ITEMS + ", "
+                + countUnshared(ITEMS, Borders.TITLED) + " before");
+        });
+    }
+
+    /**
+     * Counts the distinct border objects, including the borders inside titled and compound borders,
+     * held by the given components.
+     */
+    private static int countBorders(List<JComponent> components)
+    {
+        Set<Border> borders = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(JComponent component : components)
+        {
+            addBorder(borders, component.getBorder());
+        }
+        return borders.size();
+    }
+
+    private static void addBorder(Set<Border> borders, Border border)
+    {
+        if(border == null || !borders.add(border))
+        {
+            return;
+        }
+        if(border instanceof TitledBorder)
+        {
+            addBorder(borders, ((TitledBorder)border).getBorder());
+        }
+        else if(border instanceof CompoundBorder)
+        {
+            addBorder(borders, ((CompoundBorder)border).getOutsideBorder());
+            addBorder(borders, ((CompoundBorder)border).getInsideBorder());
+        }
+    }
+
+    /**
+     * Counts the border objects that were created when every component had a border of its own.
+     */
+    private static int countUnshared(int count, int style)
+    {
+        Set<Border> borders = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(int i = 0; i < count; i++)
+        {
+            Border border;
+            if(style == Borders.NONE)
+            {
+                border = BorderFactory.createEmptyBorder(3, 3, 3, 3);
+            }
+            else
+            {
+                border = BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(EtchedBorder.RAISED), "Group " + (i % 10), TitledBorder.LEFT, TitledBorder.DEFAULT_POSITION, Text.BUTTON);
+            }
+            addBorder(borders, border);
+        }
+        return borders.size();
+    }
+}
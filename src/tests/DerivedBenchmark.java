@@ -0,0 +1,142 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.Updater;
+import core.Updating;
+import core.app.element.active.Meter;
+import core.data.Derived;
+import core.data.DoubleVariable;
+import core.data.Variables;
+
+import javax.swing.*;
+import java.util.Random;
+
+public class DerivedBenchmark
+{
+
+    private static final int CHANGES = 200000;
+
+    private static int computeCount = 0;
+
+    private static int meterUpdates = 0;
+
+    /**
+     * The object that computes the ratio eagerly, which is held here because the
+     * <code>Updater</code> only holds it weakly.
+     */
+    private static Updating script;
+
+    /**
+     * Computes a ratio of three inputs, rounded to one decimal place, while the inputs are changed
+     * 200,000 times by small amounts. The ratio is computed the way it was before derived variables,
+     * by an object linked to the inputs that computes it and sets another variable, and then by a
+     * <code>Derived</code> variable that is only read once at the end, and by one that is shown by
+     * a <code>Meter</code>. Reports the time taken, the number of times the ratio
+     * was computed and the number of times the meter was updated. Can be run headless.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            for(int round = 0; round < 3; round++)
+            {
+                P.p("round " + round);
+                P.p("  eager script:        " + runEager());
+                P.p("  derived, not shown:  " + runDerived(false));
+                P.p("  derived, shown:      " + runDerived(true));
+            }
+        });
+    }
+
+    private static DoubleVariable[] createInputs()
+    {
+        return new DoubleVariable[]{new DoubleVariable(100), new DoubleVariable(50), new DoubleVariable(3)};
+    }
+
+    private static double ratio(DoubleVariable[] inputs)
+    {
+        computeCount++;
+        return Math.rint((inputs[0].getDouble() + inputs[1].getDouble()) / inputs[2].getDouble() * 10) / 10;
+    }
+
+    /**
+     * Changes one of the first two inputs by a small amount, which seldom changes the rounded ratio.
+     */
+    private static void change(DoubleVariable[] inputs, Random random)
+    {
+        DoubleVariable input = inputs[random.nextInt(2)];
+        input.setDouble(input.getDouble() + (random.nextDouble() - 0.5) * 0.01);
+    }
+
+    private static String runEager()
+    {
+        computeCount = 0;
+        meterUpdates = 0;
+        DoubleVariable[] inputs = createInputs();
+        DoubleVariable result = new DoubleVariable(0);
+        result.setScale(1);
+        script = (parent) -> result.setDouble(ratio(inputs));
+        for(DoubleVariable input : inputs)
+        {
+            Updater.get().addChild(input, script);
+        }
+        Meter<Double> meter = createMeter(result);
+        Random random = new Random(2016);
+        long start = System.nanoTime();
+        for(int i = 0; i < CHANGES; i++)
+        {
+            change(inputs, random);
+        }
+        long time = System.nanoTime() - start;
+        return report(time, meter.getText());
+    }
+
+    private static String runDerived(boolean isShown)
+    {
+        computeCount = 0;
+        meterUpdates = 0;
+        DoubleVariable[] inputs = createInputs();
+        Derived<Double> result = new Derived<>(() -> ratio(inputs), inputs);
+        result.setScale(1);
+        Meter<Double> meter = isShown ? createMeter(result) : null;
+        Random random = new Random(2016);
+        long start = System.nanoTime();
+        for(int i = 0; i < CHANGES; i++)
+        {
+            change(inputs, random);
+        }
+        String text = meter == null ? String.valueOf(result.getValue()) : meter.getText();
+        long time = System.nanoTime() - start;
+        return report(time, text);
+    }
+
+    private static Meter<Double> createMeter(Variables<Double> variable)
+    {
+        return new Meter<Double>(variable, false)
+        {
+            @Override
+            public void update(Updating parent)
+            {
+                meterUpdates++;
+                super.update(parent);
+            }
+        };
+    }
+
+    private static String report(long time, String text)
+    {
+        return String.format("%7.1f ms, %6d computes, %6d meter updates, shows %s", time / 1e6, computeCount, meterUpdates, text);
+    }
+}
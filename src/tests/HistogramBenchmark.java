@@ -0,0 +1,137 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.Updater;
+import core.Updating;
+import core.data.DoubleVariable;
+import core.data.Histogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class HistogramBenchmark
+{
+
+    private static final int SAMPLES = 10000000;
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    /**
+     * The number of samples kept in a list and sorted for each readout, as a script would do.
+     */
+    private static final int LIST_SAMPLES = 1000000;
+
+    private static final long INTERVAL = 100;
+
+    private static int readoutUpdates = 0;
+
+    /**
+     * Records 10,000,000 latencies, in nanoseconds from 1 microsecond to 1 second with a long tail,
+     * in a histogram counted to three significant digits, and reports the time and the bytes
+     * allocated per sample, the memory used by the buckets and the p50, p99 and p99.9 against the
+     * exact values from the sorted samples. The same samples are then recorded for two seconds
+     * while the readouts are published every 100 milliseconds, and the number of readout updates
+     * is reported. For comparison, the time taken to keep 1,000,000 samples in a list and sort them
+     * for one readout is also reported. Runs without a user interface.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        double[] samples = new double[SAMPLES];
+        Random random = new Random(2016);
+        for(int i = 0; i < SAMPLES; i++)
+        {
+            samples[i] = Math.min(1e9, Math.exp(random.nextGaussian() * 1.2 + 11));
+        }
+        for(int round = 0; round < 3; round++)
+        {
+            Histogram histogram = new Histogram("Latency", 1, 1e9, 3);
+            histogram.stop();
+            long allocated = getAllocatedBytes();
+            long start = System.nanoTime();
+            for(double sample : samples)
+            {
+                histogram.record(sample);
+            }
+            long time = System.nanoTime() - start;
+            allocated = getAllocatedBytes() - allocated;
+            P.p(String.format("round %d: %.1f ns/sample, %d bytes allocated in total, %d buckets (%d KB)", round,
+                (double)time / SAMPLES, allocated, histogram.getBucketCount(), histogram.getBucketCount() * 8 / 1024));
+            if(round == 0)
+            {
+                double[] sorted = samples.clone();
+                Arrays.sort(sorted);
+                for(double quantile : QUANTILES)
+                {
+                    double exact = sorted[(int)Math.max(0, Math.ceil(quantile * SAMPLES) - 1)];
+                    double value = histogram.getValueAtQuantile(quantile);
+                    P.p(String.format("  p%s: %.0f ns, exact %.0f ns, error %.3f%%", quantile * 100, value, exact,
+                        Math.abs(value - exact) / exact * 100));
+                }
+            }
+        }
+        P.p(throttle(samples));
+        P.p(sortList(samples));
+    }
+
+    /**
+     * Records samples for two seconds with the readouts published at intervals, and counts the
+     * updates of a readout.
+     */
+    private static String throttle(double[] samples) throws InterruptedException
+    {
+        Histogram histogram = new Histogram("Latency", 1, 1e9, 3, INTERVAL);
+        DoubleVariable p99 = histogram.getQuantile(0.99);
+        Updating readout = (parent) -> readoutUpdates++;
+        Updater.get().addChild(p99, readout);
+        long recorded = 0;
+        long end = System.nanoTime() + 2000000000L;
+        while(System.nanoTime() < end)
+        {
+            for(int i = 0; i < 100000; i++)
+            {
+                histogram.record(samples[(int)(recorded++ % SAMPLES)]);
+            }
+        }
+        Thread.sleep(INTERVAL * 2);
+        String result = String.format("throttled: %d samples recorded in 2 s, %d readout updates, p99 %.0f ns", recorded,
+            readoutUpdates, p99.getDouble());
+        Updater.get().removeChild(p99, readout);
+        return result;
+    }
+
+    private static String sortList(double[] samples)
+    {
+        long start = System.nanoTime();
+        List<Double> list = new ArrayList<>();
+        for(int i = 0; i < LIST_SAMPLES; i++)
+        {
+            list.add(samples[i]);
+        }
+        Collections.sort(list);
+        double p99 = list.get((int)Math.ceil(0.99 * LIST_SAMPLES) - 1);
+        long time = System.nanoTime() - start;
+        return String.format("sorted list: %.1f ms to keep and sort %d samples for one readout, p99 %.0f ns", time / 1e6,
+            LIST_SAMPLES, p99);
+    }
+
+    private static long getAllocatedBytes()
+    {
+        return ((com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.app.element.Borders;
+import core.app.element.Element;
+import core.app.element.Label;
+import core.app.element.ListLayout;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class LayoutBenchmark
+{
+
+    private static final int ROWS = 1000;
+
+    private static final int REPEATS = 200;
+
+    private static final int[] CHANGED_ROWS = {1, 10, 100, 1000};
+
+    /**
+     * Lays out a 1,000 row <code>ListLayout</code> panel after changing the text of 1, 10, 100 and
+     * 1,000 rows, using <code>CachedBoxLayout</code> and using <code>BoxLayout</code>, and reports
+     * the time per layout. The bounds given to every row by the two layouts are compared after
+     * each change. Can be run headless, in which case a panel given a peer of its own stands in for
+     * the window.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            Element cached = createList(false);
+            Element box = createList(true);
+            int mismatches = 0;
+            for(int round = 0; round < 2; round++)
+            {
+                for(int changed : CHANGED_ROWS)
+                {
+                    long cachedTime = time(cached, changed);
+                    long boxTime = time(box, changed);
+                    mismatches += compare(cached, box);
+                    if(round > 0)
+                    {
+                        P.p(changed + " changed rows: CachedBoxLayout " + perLayout(cachedTime) + " us, BoxLayout "
+                            + perLayout(boxTime) + " us");
+                    }
+                }
+            }
+            P.p("rows laid out differently: " + mismatches);
+            if(mismatches > 0)
+            {
+                System.exit(1);
+            }
+        });
+    }
+
+    private static Element createList(boolean isBoxLayout)
+    {
+        JPanel window = new JPanel(new BorderLayout());
+        window.addNotify();
+        Element list = new Element(new ListLayout(), Borders.NONE);
+        if(isBoxLayout)
+        {
+            list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
+        }
+        for(int i = 0; i < ROWS; i++)
+        {
+            list.add(new Label("Row " + i));
+        }
+        window.add(list);
+        window.setSize(400, 30 * ROWS);
+        window.validate();
+        return list;
+    }
+
+    /**
+     * Changes the text of the given number of rows and lays the list out again, repeatedly.
+     */
+    private static long time(Element list, int changed)
+    {
+        Container window = list.getParent();
+        long time = 0;
+        for(int repeat = 0; repeat < REPEATS; repeat++)
+        {
+            for(int i = 0; i < changed; i++)
+            {
+                int row = (int)((long)i * ROWS / changed + repeat) % ROWS;
+                ((Label)list.getComponent(row)).setText("Row " + row + " changed " + (repeat % 20));
+            }
+            long start = System.nanoTime();
+            window.validate();
+            time += System.nanoTime() - start;
+        }
+        return time;
+    }
+
+    private static int compare(Element cached, Element box)
+    {
+        int mismatches = 0;
+        for(int i = 0; i < ROWS; i++)
+        {
+            if(!cached.getComponent(i).getBounds().equals(box.getComponent(i).getBounds()))
+            {
+                mismatches++;
+            }
+        }
+        if(!cached.getPreferredSize().equals(box.getPreferredSize()))
+        {
+            mismatches++;
+        }
+        return mismatches;
+    }
+
+    private static String perLayout(long time)
+    {
+        return String.format("%.1f", time / 1e3 / REPEATS);
+    }
+}
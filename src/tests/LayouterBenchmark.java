@@ -0,0 +1,90 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.app.element.Label;
+import core.app.element.Layouter;
+import core.app.element.Layouts;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LayouterBenchmark
+{
+
+    private static final int LAYOUTERS = 10000;
+
+    /**
+     * Creates 10,000 layouters that only use their centre, as nested layouters usually do, and
+     * reports the number of components and the heap used per layouter. The same is then done with
+     * all five region panels created, as every <code>Layouter</code> used to create them. Can be
+     * run headless.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        SwingUtilities.invokeAndWait(() ->
+        {
+            P.p("centre only: " + measure(false));
+            P.p("all regions: " + measure(true));
+        });
+    }
+
+    private static String measure(boolean isEveryRegionUsed)
+    {
+        long before = usedHeap();
+        List<Layouter> layouters = new ArrayList<>();
+        for(int i = 0; i < LAYOUTERS; i++)
+        {
+            Layouter layouter = new Layouter();
+            layouter.add(new Label("Item " + i));
+            if(isEveryRegionUsed)
+            {
+                for(Layouts location : new Layouts[]{Layouts.TOP, Layouts.RIGHT, Layouts.BOTTOM, Layouts.LEFT})
+                {
+                    layouter.getPanel(location);
+                }
+            }
+            layouters.add(layouter);
+        }
+        long heap = usedHeap() - before;
+        int components = 0;
+        for(Layouter layouter : layouters)
+        {
+            components += countComponents(layouter);
+        }
+        return String.format("%.1f components and %,d bytes per layouter", (double)components / LAYOUTERS, heap / LAYOUTERS);
+    }
+
+    private static int countComponents(Container container)
+    {
+        int count = 1;
+        for(Component component : container.getComponents())
+        {
+            count += component instanceof Container ? countComponents((Container)component) : 1;
+        }
+        return count;
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++)
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.app.element.Borders;
+import core.app.element.Element;
+import core.app.element.Label;
+import core.app.element.LineLayout;
+import core.app.element.ListLayout;
+import core.app.element.Panel;
+
+import javax.swing.*;
+
+public class StartupBenchmark
+{
+
+    private static final int ROWS = 1000;
+
+    private static final int LABELS_PER_ROW = 9;
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * Builds a form of 10,000 elements, 1,000 rows of nine labels, into a panel that is already
+     * attached to a displayed hierarchy, once with updates deferred and once without, and reports
+     * the time taken and the number of layout and repaint requests made. Can be run headless, in
+     * which case a panel given a peer of its own stands in for the window.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        CountingRepaintManager repaintManager = new CountingRepaintManager();
+        SwingUtilities.invokeAndWait(() ->
+        {
+            RepaintManager.setCurrentManager(repaintManager);
+            for(int round = 0; round < ROUNDS; round++)
+            {
+                P.p("round " + round + ": immediate " + build(repaintManager, false)
+                    + ", deferred " + build(repaintManager, true));
+            }
+        });
+    }
+
+    private static String build(CountingRepaintManager repaintManager, boolean isDeferred)
+    {
+        JPanel window = new JPanel();
+        window.addNotify();
+        repaintManager.reset();
+        long start = System.nanoTime();
+        if(isDeferred)
+        {
+            Panel.beginDeferral();
+        }
+        Element form = new Element(new ListLayout(), Borders.NONE);
+        window.add(form);
+        for(int i = 0; i < ROWS; i++)
+        {
+            Element row = new Element(new LineLayout(), form, Borders.NONE);
+            for(int j = 0; j < LABELS_PER_ROW; j++)
+            {
+                row.add(new Label("Row " + i + " label " + j));
+            }
+        }
+        if(isDeferred)
+        {
+            Panel.endDeferral();
+        }
+        long built = System.nanoTime();
+        window.setSize(window.getPreferredSize());
+        window.validate();
+        long laidOut = System.nanoTime();
+        String result = String.format("%.1f ms build + %.1f ms layout, %d layout requests, %d repaint requests",
+            (built - start) / 1e6, (laidOut - built) / 1e6, repaintManager.invalidCount, repaintManager.dirtyCount);
+        window.removeNotify();
+        return result;
+    }
+
+    /**
+     * A <code>RepaintManager</code> that counts the requests made to it.
+     */
+    private static class CountingRepaintManager extends RepaintManager
+    {
+        private int invalidCount = 0;
+
+        private int dirtyCount = 0;
+
+        private void reset()
+        {
+            invalidCount = 0;
+            dirtyCount = 0;
+        }
+
+        @Override
+        public void addInvalidComponent(JComponent invalidComponent)
+        {
+            invalidCount++;
+            super.addInvalidComponent(invalidComponent);
+        }
+
+        @Override
+        public void addDirtyRegion(JComponent c, int x, int y, int w, int h)
+        {
+            dirtyCount++;
+            super.addDirtyRegion(c, x, y, w, h);
+        }
+    }
+}
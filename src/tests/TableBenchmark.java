@@ -0,0 +1,145 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.app.element.active.TableView;
+import core.data.DecimalFormatter;
+import core.data.DoubleColumn;
+import core.data.Table;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public class TableBenchmark
+{
+
+    private static final int ROWS = 100000;
+
+    private static final int COLUMNS = 10;
+
+    private static final int FRAMES = 300;
+
+    private static final double FRAME_TIME = 1000.0 / 60;
+
+    private static long formattedCells = 0;
+
+    /**
+     * Shows a table of 100,000 rows and 10 columns, 1,000,000 cells, and times frames made of
+     * scrolling to a random position and painting the view, and frames made of replacing every
+     * value of a column, updating the table and painting the view. Reports the average and worst
+     * frame times against a frame at 60 frames per second, and the number of cells formatted per
+     * frame. Can be run headless, in which case a panel given a peer of its own stands in for the
+     * window.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        Table table = new Table("Benchmark");
+        table.setRowCount(ROWS);
+        Random random = new Random(2016);
+        DoubleColumn[] columns = new DoubleColumn[COLUMNS];
+        for(int c = 0; c < COLUMNS; c++)
+        {
+            columns[c] = table.addColumn(new CountingColumn("Column " + c));
+            columns[c].setScale(c % 4);
+            for(int r = 0; r < ROWS; r++)
+            {
+                columns[c].setDouble(r, random.nextGaussian() * 1000);
+            }
+        }
+        double[] replacement = new double[ROWS];
+        SwingUtilities.invokeAndWait(() ->
+        {
+            JPanel window = new JPanel(new BorderLayout());
+            window.addNotify();
+            TableView view = new TableView(table);
+            window.add(view);
+            window.setSize(800, 600);
+            window.validate();
+            JViewport viewport = view.getScrollPane().getViewport();
+            BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+            int range = ROWS * view.getRowHeight() - viewport.getExtentSize().height;
+            for(int round = 0; round < 2; round++)
+            {
+                long worst = 0;
+                long total = 0;
+                formattedCells = 0;
+                for(int frame = 0; frame < FRAMES; frame++)
+                {
+                    long start = System.nanoTime();
+                    viewport.setViewPosition(new Point(random.nextInt(200), random.nextInt(range)));
+                    paint(window, image);
+                    long time = System.nanoTime() - start;
+                    worst = Math.max(worst, time);
+                    total += time;
+                }
+                report(round, "scroll", total, worst);
+                worst = 0;
+                total = 0;
+                formattedCells = 0;
+                for(int frame = 0; frame < FRAMES; frame++)
+                {
+                    for(int r = 0; r < ROWS; r++)
+                    {
+                        replacement[r] = random.nextGaussian() * 1000;
+                    }
+                    int column = frame % COLUMNS;
+                    long start = System.nanoTime();
+                    columns[column].setDoubles(0, replacement, 0, ROWS);
+                    table.updateColumn(column);
+                    paint(window, image);
+                    long time = System.nanoTime() - start;
+                    worst = Math.max(worst, time);
+                    total += time;
+                }
+                report(round, "bulk column update", total, worst);
+            }
+        });
+    }
+
+    private static void paint(JComponent window, BufferedImage image)
+    {
+        Graphics2D g = image.createGraphics();
+        window.paint(g);
+        g.dispose();
+    }
+
+    private static void report(int round, String name, long total, long worst)
+    {
+        if(round > 0)
+        {
+            P.p(String.format("%s: %.2f ms average, %.2f ms worst per frame (%.1f ms budget), %d cells formatted per frame",
+                name, total / 1e6 / FRAMES, worst / 1e6, FRAME_TIME, formattedCells / FRAMES));
+        }
+    }
+
+    /**
+     * A column that counts the cells that are formatted, which are the cells that are painted.
+     */
+    private static class CountingColumn extends DoubleColumn
+    {
+        private CountingColumn(String name)
+        {
+            super(name);
+        }
+
+        @Override
+        public boolean format(int row, DecimalFormatter formatter)
+        {
+            formattedCells++;
+            return super.format(row, formatter);
+        }
+    }
+}
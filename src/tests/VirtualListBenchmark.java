@@ -0,0 +1,119 @@
+/*
+ *
+ * Copyright 2016 by Andrew Reilly
+ * Licensed under the Academic Free License version 3.0
+ * See the file "LICENSE" for more information
+ *
+ */
+
+/**
+ * @author Andrew Reilly
+ * @version 1.1.0
+ */
+
+package tests;
+
+import core.Updater;
+import core.app.element.Borders;
+import core.app.element.Element;
+import core.app.element.ListLayout;
+import core.app.element.active.Meter;
+import core.app.element.active.VirtualList;
+import core.data.IntVariable;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class VirtualListBenchmark
+{
+
+    private static final int ROWS = 50000;
+
+    private static final int SCROLL_STEPS = 2000;
+
+    /**
+     * The number of rows built as a <code>ListLayout</code> panel for comparison. Attaching a panel
+     * takes time that grows with the square of its number of children, so all 50,000 rows would take
+     * minutes.
+     */
+    private static final int PANEL_ROWS = 5000;
+
+    /**
+     * Shows 50,000 meters in a <code>VirtualList</code>, scrolls through the whole list and reports
+     * the number of meters created and the time per scroll step. It then checks that changing the
+     * variable of a shown row updates its meter and that the variables of rows scrolled out of view
+     * have no meters linked to them, and compares the time taken to build 5,000 of the rows as a
+     * <code>ListLayout</code> panel. Can be run headless, in which case a panel given a peer of its
+     * own stands in for the window.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        IntVariable[] variables = new IntVariable[ROWS];
+        for(int i = 0; i < ROWS; i++)
+        {
+            variables[i] = new IntVariable(i);
+            variables[i].setDisplayName("Row " + i);
+        }
+        SwingUtilities.invokeAndWait(() ->
+        {
+            JPanel window = new JPanel(new BorderLayout());
+            window.addNotify();
+            long start = System.nanoTime();
+            VirtualList<Meter<Integer>> list = new VirtualList<>(ROWS, new VirtualList.RowBinder<Meter<Integer>>()
+            {
+                @Override
+                public Meter<Integer> createRow()
+                {
+                    return new Meter<>(variables[0], true);
+                }
+
+                @Override
+                public void bindRow(Meter<Integer> meter, int row)
+                {
+                    meter.setVariable(variables[row], true);
+                }
+            });
+            window.add(list);
+            window.setSize(300, 600);
+            window.validate();
+            P.p(String.format("virtual list: %.1f ms to show, %d meters created for %d rows",
+                (System.nanoTime() - start) / 1e6, list.getItemCount(), ROWS));
+
+            JViewport viewport = (JViewport)SwingUtilities.getAncestorOfClass(JViewport.class, list.getItem(0));
+            int range = ROWS * list.getRowHeight() - viewport.getExtentSize().height;
+            start = System.nanoTime();
+            for(int step = 1; step <= SCROLL_STEPS; step++)
+            {
+                viewport.setViewPosition(new Point(0, (int)((long)range * step / SCROLL_STEPS)));
+                window.validate();
+            }
+            P.p(String.format("scrolled to the end in %d steps: %.1f us per step, %d meters created, %d rows bound",
+                SCROLL_STEPS, (System.nanoTime() - start) / 1e3 / SCROLL_STEPS, list.getItemCount(), list.getBoundRowCount()));
+
+            int shownRow = ROWS - 3;
+            variables[shownRow].setInt(-1);
+            boolean isShownUpdated = list.getItem(shownRow).getText().equals("-1");
+            boolean isHiddenUnlinked = Updater.get().getItems(variables[100]) == null
+                || Updater.get().getItems(variables[100]).isEmpty();
+            P.p("shown row updated: " + isShownUpdated + ", scrolled out row unlinked: " + isHiddenUnlinked);
+
+            start = System.nanoTime();
+            Element panel = new Element(new ListLayout(), Borders.NONE);
+            for(int i = 0; i < PANEL_ROWS; i++)
+            {
+                panel.add(new Meter<>(variables[i], true));
+            }
+            JPanel otherWindow = new JPanel(new BorderLayout());
+            otherWindow.addNotify();
+            otherWindow.add(new JScrollPane(panel));
+            otherWindow.setSize(300, 600);
+            otherWindow.validate();
+            P.p(String.format("ListLayout panel: %.1f ms to show, %d meters created for %d rows",
+                (System.nanoTime() - start) / 1e6, PANEL_ROWS, PANEL_ROWS));
+            if(!isShownUpdated || !isHiddenUnlinked)
+            {
+                System.exit(1);
+            }
+        });
+    }
+}